@@ -2,6 +2,7 @@ package com.innometrics.gqm_api.controllers;
 
 import com.innometrics.gqm_api.dto.GoalBaseDto;
 import com.innometrics.gqm_api.dto.GoalRetrieveResponse;
+import com.innometrics.gqm_api.dto.QuestionMetricsResponse;
 import com.innometrics.gqm_api.dto.QuestionsForGoalDto;
 import com.innometrics.gqm_api.service.GoalService;
 import io.swagger.annotations.ApiOperation;
@@ -69,6 +70,16 @@ public class GoalRestController {
         return goalService.updateBy(goalId, goalBaseDto);
     }
 
+    @PutMapping("/{id}/generate-metrics")
+    @ApiOperation(
+            value = "Generates metrics for all questions of the goal",
+            notes = "API endpoint that generates metrics for every question assigned to the goal with given id " +
+                    "and returns the metrics assigned to each of them"
+    )
+    public List<QuestionMetricsResponse> generateMetrics(@PathVariable("id") Long goalId) {
+        return goalService.generateMetricsForQuestions(goalId);
+    }
+
     @DeleteMapping("/{id}")
     @ApiOperation(
             value = "Deletes the goal",
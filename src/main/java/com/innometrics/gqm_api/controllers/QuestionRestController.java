@@ -1,13 +1,17 @@
 package com.innometrics.gqm_api.controllers;
 
 import com.innometrics.gqm_api.dto.*;
+import com.innometrics.gqm_api.metrics_generation.RecommendationLimits;
+import com.innometrics.gqm_api.service.GenerationJobService;
 import com.innometrics.gqm_api.service.QuestionService;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
@@ -15,6 +19,7 @@ import java.util.List;
 public class QuestionRestController {
 
     private final QuestionService questionService;
+    private final GenerationJobService generationJobService;
 
     @GetMapping("/{id}")
     @ApiOperation(
@@ -60,10 +65,36 @@ public class QuestionRestController {
     @PutMapping("/{id}/generate-metrics")
     @ApiOperation(
             value = "Automatically generate metrics to the question",
-            notes = "API endpoint that automatically generate metrics to the question"
+            notes = "API endpoint that automatically generate metrics to the question and returns all metrics " +
+                    "ranked by confidence, topK and minConfidence limit the returned metrics and all of them " +
+                    "are assigned, without them the metrics chosen by the classifier are assigned"
     )
-    public QuestionUpdateMetricsRequest generateMetrics(@PathVariable("id") Long questionId) {
-        return questionService.generateMetrics(questionId);
+    public QuestionGeneratedMetricsResponse generateMetrics(
+            @PathVariable("id") Long questionId,
+            @RequestParam(value = "topK", required = false) Integer topK,
+            @RequestParam(value = "minConfidence", required = false) Double minConfidence
+    ) {
+        return questionService.generateMetrics(questionId, RecommendationLimits.of(topK, minConfidence));
+    }
+
+    @PostMapping("/{id}/generate-metrics/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation(
+            value = "Starts generation of metrics to the question in the background",
+            notes = "API endpoint that queues metrics generation for the question and returns the job to poll, " +
+                    "responds with 429 when the generation queue is full"
+    )
+    public GenerationJobResponse submitGenerateMetrics(@PathVariable("id") Long questionId) {
+        return generationJobService.submit(questionId);
+    }
+
+    @GetMapping("/generate-metrics/jobs/{jobId}")
+    @ApiOperation(
+            value = "Returns the metrics generation job",
+            notes = "API endpoint that returns the status of the metrics generation job and its result when done"
+    )
+    public GenerationJobResponse getGenerateMetricsJob(@PathVariable("jobId") UUID jobId) {
+        return generationJobService.getDtoById(jobId);
     }
 
 //    put:
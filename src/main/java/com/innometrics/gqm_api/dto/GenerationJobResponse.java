@@ -0,0 +1,51 @@
+package com.innometrics.gqm_api.dto;
+
+import com.innometrics.gqm_api.service.GenerationJob;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationJobResponse {
+
+    @ApiModelProperty(notes = "The job id to poll the status by")
+    private UUID jobId;
+
+    @ApiModelProperty(notes = "The id of the question metrics are generated for")
+    private Long questionId;
+
+    @ApiModelProperty(notes = "QUEUED, RUNNING, DONE or FAILED")
+    private GenerationJob.Status status;
+
+    private LocalDateTime submittedAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @ApiModelProperty(notes = "Metrics assigned to the question, present when the job is done")
+    private QuestionUpdateMetricsRequest result;
+
+    @ApiModelProperty(notes = "The reason of the failure, present when the job has failed")
+    private String error;
+
+    public static GenerationJobResponse buildFrom(GenerationJob job) {
+        return GenerationJobResponse.builder()
+                .jobId(job.getId())
+                .questionId(job.getQuestionId())
+                .status(job.getStatus())
+                .submittedAt(job.getSubmittedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .result(job.getResult())
+                .error(job.getError())
+                .build();
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.innometrics.gqm_api.dto;
+
+import com.innometrics.gqm_api.metrics_generation.MetricRecommendation;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricRecommendationResponse {
+
+    @ApiModelProperty(notes = "Id of the metric")
+    private Long metricId;
+
+    @ApiModelProperty(notes = "Name of the metric")
+    private String name;
+
+    @ApiModelProperty(notes = "Share of the classifiers which chose the metric, from 0 to 1")
+    private double confidence;
+
+    @ApiModelProperty(notes = "Whether the classifier chose the metric for the question")
+    private boolean chosen;
+
+    public static MetricRecommendationResponse buildFrom(MetricRecommendation recommendation) {
+        return MetricRecommendationResponse.builder()
+                .metricId(recommendation.getMetricId())
+                .name(recommendation.getMetricName())
+                .confidence(recommendation.getConfidence())
+                .chosen(recommendation.isChosen())
+                .build();
+    }
+
+}
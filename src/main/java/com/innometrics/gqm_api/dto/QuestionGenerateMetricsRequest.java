@@ -1,11 +1,15 @@
 package com.innometrics.gqm_api.dto;
 
 import com.innometrics.gqm_api.model.Question;
+import com.innometrics.gqm_api.repositories.QuestionMetricRow;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Setter
 @Getter
@@ -14,13 +18,53 @@ import java.util.List;
 @AllArgsConstructor
 public class QuestionGenerateMetricsRequest extends QuestionBaseDto {
 
+    @ApiModelProperty(notes = "The question id")
+    private Long id;
+
+    @ApiModelProperty(notes = "Lemmas of the meaningful words of the question content")
+    private String preprocessedContent;
+
+    @ApiModelProperty(notes = "Lemmatizer the content was preprocessed with")
+    private LemmatizerType preprocessedBy;
+
     @ApiModelProperty(notes = "List of metrics assigned to the question")
     private List<MetricResponse> metrics;
 
     public static QuestionGenerateMetricsRequest buildFrom(Question question) {
         return builder()
+                .id(question.getId())
                 .content(question.getContent())
+                .preprocessedContent(question.getPreprocessedContent())
+                .preprocessedBy(question.getPreprocessedBy())
                 .metrics(MetricResponse.buildFrom(question.getMetrics()))
                 .build();
     }
+
+    /**
+     * @param rows questions joined with their metrics, the rows of one question follow each other
+     * @return question objects with their metrics
+     */
+    public static List<QuestionGenerateMetricsRequest> buildFrom(Stream<QuestionMetricRow> rows) {
+        val questions = new ArrayList<QuestionGenerateMetricsRequest>();
+        rows.forEachOrdered(row -> {
+            if (questions.isEmpty() || !questions.get(questions.size() - 1).getId().equals(row.getQuestionId())) {
+                questions.add(builder()
+                        .id(row.getQuestionId())
+                        .content(row.getContent())
+                        .preprocessedContent(row.getPreprocessedContent())
+                        .preprocessedBy(row.getPreprocessedBy())
+                        .metrics(new ArrayList<>())
+                        .build());
+            }
+            if (row.getMetricId() != null) {
+                questions.get(questions.size() - 1).getMetrics().add(
+                        MetricResponse.builder()
+                                .id(row.getMetricId())
+                                .name(row.getMetricName())
+                                .build()
+                );
+            }
+        });
+        return questions;
+    }
 }
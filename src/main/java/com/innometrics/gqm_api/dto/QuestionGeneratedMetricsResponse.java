@@ -0,0 +1,43 @@
+package com.innometrics.gqm_api.dto;
+
+import com.innometrics.gqm_api.metrics_generation.MetricRecommendation;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.model.Question;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionGeneratedMetricsResponse {
+
+    @ApiModelProperty(notes = "List of metrics ids which are assigned to that question")
+    private List<Long> metricIds;
+
+    @ApiModelProperty(notes = "Generated metrics with their confidences, the most confident first")
+    private List<MetricRecommendationResponse> recommendations;
+
+    public static QuestionGeneratedMetricsResponse buildFrom(
+            Question question,
+            List<MetricRecommendation> recommendations
+    ) {
+        return QuestionGeneratedMetricsResponse.builder()
+                .metricIds(
+                        question.getMetrics().stream()
+                                .map(Metric::getId)
+                                .collect(Collectors.toList())
+                )
+                .recommendations(
+                        recommendations.stream()
+                                .map(MetricRecommendationResponse::buildFrom)
+                                .collect(Collectors.toList())
+                )
+                .build();
+    }
+
+}
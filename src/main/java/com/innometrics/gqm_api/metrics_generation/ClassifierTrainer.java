@@ -0,0 +1,56 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.SneakyThrows;
+import lombok.val;
+import mulan.classifier.MultiLabelLearner;
+import mulan.data.MultiLabelInstances;
+import org.springframework.stereotype.Component;
+import weka.classifiers.trees.J48;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Trains the RAkEL models. The members of a model do not depend on each other, so they are trained
+ * on a fork join pool of metrics-generation.trainingParallelism threads shared by all trainings.
+ */
+@Component
+public class ClassifierTrainer {
+
+    private static final int SIZE_OF_SUBSET = 2;
+    private static final int SEED = 0;
+
+    private final ForkJoinPool trainingPool;
+
+    public ClassifierTrainer(FileGenerationConfiguration fileGenerationConfiguration) {
+        this.trainingPool = new ForkJoinPool(
+                fileGenerationConfiguration.getTrainingParallelism(),
+                pool -> {
+                    val worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    worker.setName("rakel-training-" + worker.getPoolIndex());
+                    worker.setDaemon(true);
+                    return worker;
+                },
+                null,
+                false
+        );
+    }
+
+    /**
+     * @param dataset multi-label dataset built from the questions
+     * @return RAkEL model with the same members as the sequentially trained one
+     */
+    @SneakyThrows
+    public MultiLabelLearner train(MultiLabelInstances dataset) {
+        val model = new ParallelRAkEL(new RepeatableLabelPowerset(new J48()), SIZE_OF_SUBSET, SEED, trainingPool);
+        model.build(dataset);
+        return model;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        trainingPool.shutdownNow();
+    }
+
+}
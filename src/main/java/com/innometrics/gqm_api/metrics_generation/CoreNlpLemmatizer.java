@@ -0,0 +1,64 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import edu.stanford.nlp.ling.CoreAnnotations.LemmaAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Lemmatizes the words depending on their part of speech in the whole text with the StanfordCoreNLP pipeline.
+ * The pipeline is shared by all threads: its annotators keep no state between annotations.
+ */
+class CoreNlpLemmatizer implements Lemmatizer {
+
+    private final StanfordCoreNLP pipeline;
+
+    /**
+     * create StanfordCoreNLP object properties, with POS tagging
+     */
+    CoreNlpLemmatizer() {
+        Properties props = new Properties();
+        props.setProperty("annotators", "tokenize, ssplit, pos, lemma");
+        pipeline = new StanfordCoreNLP(props);
+    }
+
+    /**
+     * the tokens are mapped back to the words they come from by their offsets in the content
+     */
+    @Override
+    public List<String> lemmatize(String content, String[] words) {
+        val sentence = new Annotation(content);
+        pipeline.annotate(sentence);
+
+        val wordStarts = new int[words.length];
+        for (int i = 1; i < words.length; i++) {
+            wordStarts[i] = wordStarts[i - 1] + words[i - 1].length() + 1;
+        }
+        val wordLemmas = new ArrayList<StringBuilder>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            wordLemmas.add(new StringBuilder());
+        }
+
+        int word = 0;
+        for (CoreLabel token : sentence.get(TokensAnnotation.class)) {
+            while (word + 1 < words.length && wordStarts[word + 1] <= token.beginPosition()) {
+                word++;
+            }
+            val wordLemma = wordLemmas.get(word);
+            if (wordLemma.length() > 0) {
+                wordLemma.append(' ');
+            }
+            wordLemma.append(token.get(LemmaAnnotation.class));
+        }
+        return wordLemmas.stream().map(StringBuilder::toString).collect(toList());
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.model.Token;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.val;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of the metrics generation: a timer per stage, so a slow generation shows where it spends
+ * its time, counters of the generations and the model cache, and gauges of the corpus, the vocabulary
+ * and the last trained model. They are exposed on the actuator prometheus endpoint.
+ */
+@Component
+public class GenerationMetrics {
+
+    public enum Stage {
+        CORPUS_LOADING,
+        PREPROCESSING,
+        DATASET_BUILD,
+        TRAINING,
+        PREDICTION,
+        PERSISTENCE;
+
+        String getTag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Counter generatedQuestions;
+    private final Counter recommendedMetrics;
+    private final Counter modelCacheHits;
+    private final Counter modelCacheMisses;
+
+    private final AtomicInteger corpusSize = new AtomicInteger();
+    private final AtomicInteger labels = new AtomicInteger();
+
+    /**
+     * System.currentTimeMillis() when the model used by the generations with the whole corpus was trained,
+     * 0 until it is published
+     */
+    private volatile long publishedModelTrainedAt;
+
+    public GenerationMetrics(MeterRegistry meterRegistry, Vocabulary vocabulary) {
+        this.meterRegistry = meterRegistry;
+        for (val stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("gqm.generation.stage")
+                                        .description("Time spent in the stage of the metrics generation")
+                                        .tag("stage", stage.getTag())
+                                        .publishPercentileHistogram()
+                                        .register(meterRegistry));
+        }
+        generatedQuestions = Counter.builder("gqm.generation.questions")
+                                    .description("Questions metrics were generated for")
+                                    .register(meterRegistry);
+        recommendedMetrics = Counter.builder("gqm.generation.recommendations")
+                                    .description("Metrics recommended to the questions")
+                                    .register(meterRegistry);
+        modelCacheHits = Counter.builder("gqm.generation.model.cache")
+                                .description("Generations by the model which was trained or published before")
+                                .tag("result", "hit")
+                                .register(meterRegistry);
+        modelCacheMisses = Counter.builder("gqm.generation.model.cache")
+                                  .description("Generations which had to train the model")
+                                  .tag("result", "miss")
+                                  .register(meterRegistry);
+
+        Gauge.builder("gqm.generation.corpus.size", corpusSize, AtomicInteger::get)
+             .description("Questions in the last loaded corpus")
+             .register(meterRegistry);
+        for (val kind : Token.Kind.values()) {
+            Gauge.builder("gqm.generation.vocabulary.size", vocabulary, tokens -> tokens.size(kind))
+                 .description("Tokens in the vocabulary")
+                 .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                 .register(meterRegistry);
+        }
+        Gauge.builder("gqm.generation.labels", labels, AtomicInteger::get)
+             .description("Labels, one per metric, of the model used by the generations with the whole corpus")
+             .register(meterRegistry);
+        TimeGauge.builder("gqm.generation.model.age", this, TimeUnit.MILLISECONDS, GenerationMetrics::getModelAge)
+                 .description("Time since the model used by the generations with the whole corpus was trained, "
+                         + "NaN before it is published")
+                 .register(meterRegistry);
+    }
+
+    /**
+     * @param stage  stage of the generation the action belongs to
+     * @param action the stage
+     * @return result of the action
+     */
+    public <T> T time(Stage stage, Supplier<T> action) {
+        return stageTimers.get(stage).record(action);
+    }
+
+    /**
+     * for the stages which are not a single call
+     *
+     * @return sample to stop when the stage is over
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * @param sample started at the beginning of the stage
+     * @param stage  stage of the generation which is over
+     */
+    public void stop(Timer.Sample sample, Stage stage) {
+        sample.stop(stageTimers.get(stage));
+    }
+
+    /**
+     * @param size number of the questions in the loaded corpus
+     */
+    public void corpusLoaded(int size) {
+        corpusSize.set(size);
+    }
+
+    /**
+     * the models trained for a single generation, such as the ones without the question or its neighbourhood,
+     * are not reported
+     *
+     * @param model model used by the generations with the whole corpus, trained, cached or loaded from the snapshot
+     */
+    public void modelPublished(TrainedModel model) {
+        labels.set(model.getMetricsNames().size());
+        publishedModelTrainedAt = model.getTrainedAt();
+    }
+
+    /**
+     * @param trained         true if the model was trained for the generation, false if it was taken from the cache
+     * @param recommendations number of the metrics recommended to the question
+     */
+    public void generated(boolean trained, int recommendations) {
+        (trained ? modelCacheMisses : modelCacheHits).increment();
+        generatedQuestions.increment();
+        recommendedMetrics.increment(recommendations);
+    }
+
+    private double getModelAge() {
+        val trainedAt = publishedModelTrainedAt;
+        return trainedAt == 0 ? Double.NaN : System.currentTimeMillis() - trainedAt;
+    }
+
+}
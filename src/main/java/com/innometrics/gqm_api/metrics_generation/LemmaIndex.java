@@ -0,0 +1,201 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.dto.MetricResponse;
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index from the lemmas to the questions with metrics whose preprocessed contents contain them,
+ * held in memory and updated once the writes of the questions are committed. It finds the questions closest
+ * to a question by BM25, so the classifier can be trained on them instead of the whole corpus.
+ * The questions written by the other instances of the application are picked up by {@link #load()}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LemmaIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final QuestionRepository questionRepository;
+    private final TextPreprocessor textPreprocessor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * key - lemma, value - key - id of the question, value - number of the lemma occurrences in its content
+     */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /**
+     * key - id of the question, value - lemmas of its preprocessed content
+     */
+    private final Map<Long, String[]> questionsLemmas = new HashMap<>();
+
+    /**
+     * key - id of the question, value - ids of its metrics
+     */
+    private final Map<Long, Set<Long>> questionsMetrics = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * replaces the index with the questions stored at the moment, the questions preprocessed by another lemmatizer
+     * are indexed by the backfill
+     */
+    @PostConstruct
+    public void load() {
+        val lemmatizer = textPreprocessor.getLemmatizerType();
+        val questions = transactionTemplate.execute(status -> {
+            try (val rows = questionRepository.streamAllMetricRows()) {
+                return QuestionGenerateMetricsRequest.buildFrom(rows);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            questionsLemmas.clear();
+            questionsMetrics.clear();
+            totalLength = 0;
+            for (val question : questions) {
+                if (question.getPreprocessedBy() == lemmatizer) {
+                    indexUnderLock(
+                            question.getId(),
+                            question.getPreprocessedContent(),
+                            question.getMetrics().stream().map(MetricResponse::getId).collect(Collectors.toSet())
+                    );
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param questionId          id of the question
+     * @param preprocessedContent preprocessed question content, null removes the question from the index
+     * @param metricIds           ids of the metrics of the question, none removes the question from the index
+     */
+    public void index(Long questionId, String preprocessedContent, Collection<Long> metricIds) {
+        val metrics = new HashSet<Long>(metricIds);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                indexUnderLock(questionId, preprocessedContent, metrics);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void indexUnderLock(Long questionId, String preprocessedContent, Set<Long> metricIds) {
+        removeUnderLock(questionId);
+        if (preprocessedContent == null || preprocessedContent.isEmpty() || metricIds.isEmpty()) {
+            return;
+        }
+        val lemmas = preprocessedContent.split(" ");
+        questionsLemmas.put(questionId, lemmas);
+        questionsMetrics.put(questionId, metricIds);
+        totalLength += lemmas.length;
+        for (val lemma : lemmas) {
+            postings.computeIfAbsent(lemma, absent -> new HashMap<>()).merge(questionId, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @param questionId id of the question
+     */
+    public void remove(Long questionId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                removeUnderLock(questionId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void removeUnderLock(Long questionId) {
+        questionsMetrics.remove(questionId);
+        val lemmas = questionsLemmas.remove(questionId);
+        if (lemmas == null) {
+            return;
+        }
+        totalLength -= lemmas.length;
+        for (val lemma : lemmas) {
+            val questions = postings.get(lemma);
+            if (questions != null && questions.remove(questionId) != null && questions.isEmpty()) {
+                postings.remove(lemma);
+            }
+        }
+    }
+
+    /**
+     * @param preprocessedContent preprocessed content of the question to find the neighbours of
+     * @param limit               maximal number of the neighbours
+     * @param excludedQuestionId  id of the question which is not a neighbour, null if there is no such question
+     * @return ids of the questions with metrics sharing lemmas with the content, the closest by BM25 first
+     */
+    public List<Long> findNeighbours(String preprocessedContent, int limit, Long excludedQuestionId) {
+        if (preprocessedContent == null || preprocessedContent.isEmpty()) {
+            return Collections.emptyList();
+        }
+        val scores = new HashMap<Long, Double>();
+        lock.readLock().lock();
+        try {
+            val numberOfQuestions = questionsLemmas.size();
+            val averageLength = numberOfQuestions == 0 ? 0 : (double) totalLength / numberOfQuestions;
+            for (val lemma : new LinkedHashSet<>(Arrays.asList(preprocessedContent.split(" ")))) {
+                val questions = postings.get(lemma);
+                if (questions == null) {
+                    continue;
+                }
+                val idf = Math.log(1 + (numberOfQuestions - questions.size() + 0.5) / (questions.size() + 0.5));
+                questions.forEach((questionId, frequency) -> {
+                    val length = questionsLemmas.get(questionId).length;
+                    val score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(questionId, score, Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        scores.remove(excludedQuestionId);
+
+        val neighbours = new ArrayList<Long>(scores.keySet());
+        neighbours.sort(Comparator.comparing((Long questionId) -> scores.get(questionId))
+                                  .reversed()
+                                  .thenComparing(Comparator.naturalOrder()));
+        return neighbours.subList(0, Math.min(limit, neighbours.size()));
+    }
+
+    /**
+     * @param questionIds ids of the indexed questions
+     * @return number of the distinct metrics of the questions
+     */
+    public int countMetrics(Collection<Long> questionIds) {
+        val metrics = new HashSet<Long>();
+        lock.readLock().lock();
+        try {
+            for (val questionId : questionIds) {
+                metrics.addAll(questionsMetrics.getOrDefault(questionId, Collections.emptySet()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return metrics.size();
+    }
+
+}
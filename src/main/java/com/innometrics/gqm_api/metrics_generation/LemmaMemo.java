@@ -0,0 +1,195 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import edu.stanford.nlp.process.Morphology;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded memo of the lemmas StanfordCoreNLP gives, so the texts it knows skip the pipeline completely.
+ * The pipeline lemmatizes a word by its part of speech in the context of the whole text, so the cleaned texts
+ * are remembered whole with their lemmas, which covers every plural and inflected word of them ("commits", "made").
+ * A text met for the first time is still lemmatized from the memo if all its words get the same lemma
+ * whatever tag they are given. So the memo gives exactly the lemmas the pipeline would give.
+ */
+class LemmaMemo {
+
+    private static final String AMBIGUOUS = "";
+    private static final char SEPARATOR = '\t';
+    private static final String[] PENN_TREEBANK_TAGS = {
+            "CC", "CD", "DT", "EX", "FW", "IN", "JJ", "JJR", "JJS", "LS", "MD", "NN", "NNS", "NNP", "NNPS", "PDT",
+            "POS", "PRP", "PRP$", "RB", "RBR", "RBS", "RP", "SYM", "TO", "UH", "VB", "VBD", "VBG", "VBN", "VBP",
+            "VBZ", "WDT", "WP", "WP$", "WRB"
+    };
+
+    /**
+     * used under the lock of the lemmas only, it keeps the state of its lexer
+     */
+    private final Morphology morphology = new Morphology();
+
+    /**
+     * key - cleaned text, value - its lemmas separated by spaces
+     */
+    private final Map<String, String> texts;
+
+    /**
+     * key - word, value - its lemma or AMBIGUOUS
+     */
+    private final Map<String, String> lemmas;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxSize maximum number of remembered texts and of remembered words,
+     *                the least recently used ones are forgotten
+     */
+    LemmaMemo(int maxSize) {
+        texts = createLeastRecentlyUsedMap(maxSize);
+        lemmas = createLeastRecentlyUsedMap(maxSize);
+    }
+
+    private static Map<String, String> createLeastRecentlyUsedMap(int maxSize) {
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param content cleaned text, words separated by single spaces
+     * @param words   the words of the text
+     * @return lemmas of the text separated by spaces, null if the text is unknown and any of its words
+     * is unknown or ambiguous
+     */
+    String lemmatize(String content, String[] words) {
+        val lemmatized = new StringBuilder();
+        synchronized (lemmas) {
+            val text = texts.get(content);
+            if (text != null) {
+                hits.incrementAndGet();
+                return text;
+            }
+            for (val word : words) {
+                val lemma = lemmas.get(word);
+                if (lemma == null || lemma.equals(AMBIGUOUS)) {
+                    misses.incrementAndGet();
+                    return null;
+                }
+                if (lemmatized.length() > 0) {
+                    lemmatized.append(' ');
+                }
+                lemmatized.append(lemma);
+            }
+        }
+        hits.incrementAndGet();
+        return lemmatized.toString();
+    }
+
+    /**
+     * @param content    cleaned text, words separated by single spaces
+     * @param words      the words of the text
+     * @param wordLemmas lemmas the pipeline has given to every word of the text
+     */
+    void learn(String content, String[] words, List<String> wordLemmas) {
+        synchronized (lemmas) {
+            texts.put(content, TextPreprocessor.joinLemmas(wordLemmas));
+            for (int i = 0; i < words.length; i++) {
+                remember(words[i], wordLemmas.get(i));
+            }
+        }
+    }
+
+    private void remember(String word, String lemma) {
+        if (lemmas.containsKey(word)) {
+            return;
+        }
+        lemmas.put(word, isLemmaOfAnyTag(word, lemma) ? lemma : AMBIGUOUS);
+    }
+
+    /**
+     * @return true if the word is one token which gets the given lemma with any part of speech tag
+     */
+    private boolean isLemmaOfAnyTag(String word, String lemma) {
+        if (lemma.isEmpty() || lemma.indexOf(' ') >= 0) {
+            return false;
+        }
+        for (val tag : PENN_TREEBANK_TAGS) {
+            if (!lemma.equals(morphology.lemma(word, tag))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of texts lemmatized without the pipeline
+     */
+    long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of texts which had to go through the pipeline
+     */
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of remembered texts and words
+     */
+    int size() {
+        synchronized (lemmas) {
+            return texts.size() + lemmas.size();
+        }
+    }
+
+    /**
+     * @param file tab separated words and their lemmas, ambiguous words have no lemma,
+     *             the lines of the texts start with a tab
+     */
+    @SneakyThrows
+    void load(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        val lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        synchronized (lemmas) {
+            for (val line : lines) {
+                val separator = line.indexOf(SEPARATOR, 1);
+                if (separator > 0 && line.charAt(0) == SEPARATOR) {
+                    texts.put(line.substring(1, separator), line.substring(separator + 1));
+                } else if (separator > 0) {
+                    lemmas.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+        }
+    }
+
+    @SneakyThrows
+    void save(Path file) {
+        val lines = new ArrayList<String>();
+        synchronized (lemmas) {
+            texts.forEach((text, textLemmas) -> lines.add(SEPARATOR + text + SEPARATOR + textLemmas));
+            lemmas.forEach((word, lemma) -> lines.add(word + SEPARATOR + lemma));
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (val line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+}
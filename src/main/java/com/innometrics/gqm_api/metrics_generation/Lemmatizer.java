@@ -0,0 +1,17 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import java.util.List;
+
+/**
+ * Reduces the cleaned words of the question content to their standard forms
+ */
+interface Lemmatizer {
+
+    /**
+     * @param content cleaned question content, words separated by single spaces
+     * @param words   the words of the content
+     * @return lemmas of every word, lemmas of a word split into several tokens are separated by spaces
+     */
+    List<String> lemmatize(String content, String[] words);
+
+}
@@ -0,0 +1,29 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import edu.stanford.nlp.process.Morphology;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lemmatizes every word on its own with the rule and dictionary based morphology of CoreNLP,
+ * no part of speech tagger and no models are loaded, so it starts at once and takes little memory,
+ * but words which are lemmatized differently depending on their part of speech may get another lemma
+ */
+class LightLemmatizer implements Lemmatizer {
+
+    /**
+     * morphology keeps the state of its lexer, so every thread has its own
+     */
+    private final ThreadLocal<Morphology> morphology = ThreadLocal.withInitial(Morphology::new);
+
+    @Override
+    public List<String> lemmatize(String content, String[] words) {
+        List<String> wordLemmas = new ArrayList<>(words.length);
+        for (String word : words) {
+            wordLemmas.add(morphology.get().stem(word));
+        }
+        return wordLemmas;
+    }
+
+}
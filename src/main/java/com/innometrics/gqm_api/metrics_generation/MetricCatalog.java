@@ -0,0 +1,187 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.val;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids, names and descriptions of all metrics held in memory, so the generated metrics are resolved
+ * from the names of the labels to the metrics without querying them. It listens to the writes of the metrics
+ * and applies them once they are committed. It is loaded when it is first used, and the metrics written
+ * by the other instances of the application are queried the first time they are met and picked up by {@link #load()}.
+ */
+@Component
+public class MetricCatalog {
+
+    private final MetricRepository metricRepository;
+
+    /**
+     * key - id of the metric, value - the metric
+     */
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * key - name of the metric, value - id of the metric
+     */
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * the repository is lazy, because the catalog is needed by the entity listener of the metrics,
+     * which is created before the repositories
+     */
+    public MetricCatalog(@Lazy MetricRepository metricRepository) {
+        this.metricRepository = metricRepository;
+    }
+
+    /**
+     * replaces the catalog with the metrics stored at the moment
+     */
+    public synchronized void load() {
+        val metrics = metricRepository.findAll();
+        entries.clear();
+        ids.clear();
+        metrics.forEach(this::put);
+        loaded = true;
+    }
+
+    private void loadIfAbsent() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param metricsNames names of the metrics
+     * @return key - name of the metric, value - id of the metric, the names of the missing metrics are left out
+     */
+    public Map<String, Long> getIds(Collection<String> metricsNames) {
+        loadIfAbsent();
+        val found = new HashMap<String, Long>();
+        val missing = new ArrayList<String>();
+        for (val name : metricsNames) {
+            val id = ids.get(name);
+            if (id != null) {
+                found.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (val metric : metricRepository.findAllByNameIn(missing)) {
+                put(metric);
+                found.put(metric.getName(), metric.getId());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * the metrics are not managed by the persistence context, but only their ids are written
+     * when they are assigned to a question
+     *
+     * @param metricsIds ids of the metrics
+     * @return the metrics, the missing ones are left out
+     */
+    public List<Metric> getMetrics(Collection<Long> metricsIds) {
+        loadIfAbsent();
+        val metrics = new ArrayList<Metric>();
+        val missing = new ArrayList<Long>();
+        for (val id : metricsIds) {
+            val entry = entries.get(id);
+            if (entry != null) {
+                metrics.add(entry.toMetric());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (val metric : metricRepository.findAllById(missing)) {
+                put(metric);
+                metrics.add(metric);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * entity listener of the metrics, the listeners are created by the persistence provider,
+     * so it forwards the writes to the catalog
+     */
+    @RequiredArgsConstructor
+    public static class Listener {
+
+        private final MetricCatalog metricCatalog;
+
+        @PostPersist
+        @PostUpdate
+        public void onSaved(Metric metric) {
+            val entry = Entry.of(metric);
+            AfterCommit.run(() -> metricCatalog.put(entry));
+        }
+
+        @PostRemove
+        public void onRemoved(Metric metric) {
+            val id = metric.getId();
+            AfterCommit.run(() -> metricCatalog.remove(id));
+        }
+
+    }
+
+    private void put(Metric metric) {
+        put(Entry.of(metric));
+    }
+
+    private synchronized void put(Entry entry) {
+        remove(entry.getId());
+        ids.remove(entry.getName());
+        entries.put(entry.getId(), entry);
+        ids.put(entry.getName(), entry.getId());
+    }
+
+    private synchronized void remove(Long id) {
+        val entry = entries.remove(id);
+        if (entry != null) {
+            ids.remove(entry.getName(), id);
+        }
+    }
+
+    @Value
+    private static class Entry {
+
+        Long id;
+
+        String name;
+
+        String description;
+
+        static Entry of(Metric metric) {
+            return new Entry(metric.getId(), metric.getName(), metric.getDescription());
+        }
+
+        Metric toMetric() {
+            return Metric.builder()
+                         .id(id)
+                         .name(name)
+                         .description(description)
+                         .build();
+        }
+
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import lombok.Value;
+
+@Value
+public class MetricRecommendation {
+
+    Long metricId;
+
+    String metricName;
+
+    /**
+     * share of the classifiers of the ensemble which chose the metric, from 0 to 1
+     */
+    double confidence;
+
+    /**
+     * whether the classifier assigned the metric to the question, whatever its confidence is
+     */
+    boolean chosen;
+
+}
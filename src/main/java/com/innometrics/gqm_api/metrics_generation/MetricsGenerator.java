@@ -1,53 +1,57 @@
 package com.innometrics.gqm_api.metrics_generation;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.innometrics.gqm_api.dto.MetricResponse;
 import com.innometrics.gqm_api.dto.QuestionBaseDto;
 import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
-import com.innometrics.gqm_api.model.Metric;
-import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.model.Token;
 import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
-import edu.stanford.nlp.ling.CoreAnnotations.LemmaAnnotation;
-import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
-import edu.stanford.nlp.ling.CoreLabel;
-import edu.stanford.nlp.pipeline.Annotation;
-import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import lombok.*;
+import lombok.extern.slf4j.Slf4j;
 import mulan.classifier.MultiLabelOutput;
-import mulan.classifier.meta.RAkEL;
-import mulan.classifier.transformation.LabelPowerset;
+import mulan.data.LabelNodeImpl;
+import mulan.data.LabelsMetaData;
+import mulan.data.LabelsMetaDataImpl;
 import mulan.data.MultiLabelInstances;
 import org.springframework.stereotype.Component;
-import weka.classifiers.trees.J48;
+import weka.core.Attribute;
+import weka.core.Instances;
+import weka.core.SparseInstance;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.innometrics.gqm_api.metrics_generation.GenerationMetrics.Stage.*;
 import static com.innometrics.gqm_api.metrics_generation.MetricsGenerator.FileType.DATA;
 import static com.innometrics.gqm_api.metrics_generation.MetricsGenerator.FileType.INPUT;
-import static java.lang.String.format;
+import static com.innometrics.gqm_api.model.Token.Kind.LEMMA;
+import static com.innometrics.gqm_api.model.Token.Kind.METRIC;
 import static java.util.Collections.*;
 import static java.util.stream.Collectors.*;
 import static java.util.stream.Stream.concat;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class MetricsGenerator {
 
-    private static final Integer MIN_METRICS_FOR_MULAN_LIBRARY_TO_WORK = 3;
+    public static final int MIN_METRICS_FOR_MULAN_LIBRARY_TO_WORK = 3;
+    private static final List<String> BINARY_VALUES = Arrays.asList("0", "1");
 
-    private final MetricRepository metricRepository;
+    private final MetricCatalog metricCatalog;
     private final FileGenerationConfiguration fileGenerationConfiguration;
-
-    private StanfordCoreNLP pipeline;
-    private Set<String> stopWords;
-    private boolean StanfordCoreNlpObjectCreated = false;
+    private final TrainedModelCache trainedModelCache;
+    private final TextPreprocessor textPreprocessor;
+    private final Vocabulary vocabulary;
+    private final ClassifierTrainer classifierTrainer;
+    private final GenerationMetrics generationMetrics;
 
     /**
      * @param inputQuestionContent          content of the question for which metrics should be generated
@@ -58,341 +62,530 @@ public class MetricsGenerator {
             String inputQuestionContent,
             List<QuestionGenerateMetricsRequest> questionsWithoutInputQuestion
     ) {
-        val metricsNames = getMetricsNamesForQuestions(questionsWithoutInputQuestion);
-        if (metricsNames.size() < MIN_METRICS_FOR_MULAN_LIBRARY_TO_WORK) {
-            return emptyList();
-        }
+        val preprocessor = new PreprocessedContents(textPreprocessor);
+        preprocessor.addStored(questionsWithoutInputQuestion);
+        val recommendations = recommendMetrics(
+                inputQuestionContent,
+                train(questionsWithoutInputQuestion, preprocessor),
+                preprocessor,
+                RecommendationLimits.NONE
+        );
+        generationMetrics.generated(true, recommendations.size());
+        return getMetricsIds(recommendations);
+    }
 
-        val questionContentToSetOfMetricsMap = createQuestionToMetricsMapping(questionsWithoutInputQuestion);
-        generateFiles(
-                getPreprocessed(inputQuestionContent),
-                getPreprocessedQuestionsContents(questionContentToSetOfMetricsMap),
-                metricsNames
+    /**
+     * the same as {@link #generateMetrics(String, List)}, but the model trained for the training set is cached,
+     * so the questions are loaded, preprocessed and trained on only when the corpus has changed
+     *
+     * @param inputQuestionContent content of the question for which metrics should be generated
+     * @param trainingSetKey       identifies the training set and the corpus version it was taken from
+     * @param corpus               loads question objects with id, content and set of metrics,
+     *                             the question left out by the training set key is skipped
+     * @return list of generated metrics ids
+     */
+    public List<Long> generateMetrics(
+            String inputQuestionContent,
+            TrainingSetKey trainingSetKey,
+            Supplier<List<QuestionGenerateMetricsRequest>> corpus
+    ) {
+        return getMetricsIds(
+                recommendMetrics(inputQuestionContent, trainingSetKey, corpus, RecommendationLimits.NONE)
         );
-        return getMetricsIds(makePredictions(trainClassifier()), metricsNames);
     }
 
     /**
-     * @param questions list of question objects with content and set of metrics
-     * @return list of distinct metrics from all question objects
+     * the same as {@link #generateMetrics(String, TrainingSetKey, Supplier)}, but the metrics are ranked
+     * by their confidence and limited by the given limits
+     *
+     * @param inputQuestionContent content of the question for which metrics should be generated
+     * @param trainingSetKey       identifies the training set and the corpus version it was taken from
+     * @param corpus               loads question objects with id, content and set of metrics,
+     *                             the question left out by the training set key is skipped
+     * @param limits               which of the ranked metrics are recommended
+     * @return recommended metrics, the most confident first
      */
-    private List<String> getMetricsNamesForQuestions(List<QuestionGenerateMetricsRequest> questions) {
-        return questions.stream()
-                        .flatMap(q -> q.getMetrics().stream())
-                        .map(MetricResponse::getName)
-                        .distinct()
-                        .collect(Collectors.toList());
+    public List<MetricRecommendation> recommendMetrics(
+            String inputQuestionContent,
+            TrainingSetKey trainingSetKey,
+            Supplier<List<QuestionGenerateMetricsRequest>> corpus,
+            RecommendationLimits limits
+    ) {
+        val inputQuestion = QuestionGenerateMetricsRequest.builder()
+                                                          .content(inputQuestionContent)
+                                                          .build();
+        return recommendMetrics(singletonList(inputQuestion), question -> trainingSetKey, corpus, limits)
+                .get(inputQuestion.getId());
     }
 
     /**
-     * @param questions list of question objects with content and set of metrics
-     * @return dictionary with questions contents as keys and set of metrics as values
+     * generates metrics for several questions at once: the corpus is loaded and preprocessed at most once
+     * and every model is trained at most once, however many questions are predicted with it
+     *
+     * @param inputQuestions  question objects with id and content for which metrics should be generated
+     * @param trainingSetKeys identifies the training set to generate metrics for the question with
+     * @param corpus          loads question objects with id, content and set of metrics,
+     *                        the question left out by the training set key is skipped
+     * @return key - id of the input question, value - list of generated metrics ids
      */
-    private Map<String, Set<String>> createQuestionToMetricsMapping(
-            List<QuestionGenerateMetricsRequest> questions
+    public Map<Long, List<Long>> generateMetrics(
+            List<QuestionGenerateMetricsRequest> inputQuestions,
+            Function<QuestionGenerateMetricsRequest, TrainingSetKey> trainingSetKeys,
+            Supplier<List<QuestionGenerateMetricsRequest>> corpus
     ) {
-        return questions
-                .stream()
-                .collect(toMap(
-                        QuestionBaseDto::getContent,
-                        question -> question.getMetrics().stream().map(MetricResponse::getName).collect(toSet()),
-                        (oldMetrics, newMetrics) -> concat(oldMetrics.stream(), newMetrics.stream()).collect(toSet())
+        val generatedMetricsIds = new HashMap<Long, List<Long>>();
+        recommendMetrics(inputQuestions, trainingSetKeys, corpus, RecommendationLimits.NONE)
+                .forEach((questionId, recommendations) -> generatedMetricsIds.put(
+                        questionId,
+                        getMetricsIds(recommendations)
                 ));
+        return generatedMetricsIds;
     }
 
     /**
-     * @param questionToMetricsMap dictionary with questions contents as keys and set of metrics as values
-     * @return dictionary with preprocessed questions contents as keys and set of metrics as values
+     * the same as {@link #generateMetrics(List, Function, Supplier)}, but the metrics are ranked
+     * by their confidence and limited by the given limits
+     *
+     * @param inputQuestions  question objects with id and content for which metrics should be generated
+     * @param trainingSetKeys identifies the training set to generate metrics for the question with
+     * @param corpus          loads question objects with id, content and set of metrics,
+     *                        the question left out by the training set key is skipped
+     * @param limits          which of the ranked metrics are recommended
+     * @return key - id of the input question, value - recommended metrics, the most confident first
      */
-    private Map<String, Set<String>> getPreprocessedQuestionsContents(Map<String, Set<String>> questionToMetricsMap) {
-        return questionToMetricsMap
-                .keySet().stream()
-                .collect(toMap(
-                        this::getPreprocessed,
-                        questionToMetricsMap::get
-                ));
+    public Map<Long, List<MetricRecommendation>> recommendMetrics(
+            List<QuestionGenerateMetricsRequest> inputQuestions,
+            Function<QuestionGenerateMetricsRequest, TrainingSetKey> trainingSetKeys,
+            Supplier<List<QuestionGenerateMetricsRequest>> corpus,
+            RecommendationLimits limits
+    ) {
+        val preprocessor = new PreprocessedContents(textPreprocessor);
+        preprocessor.addStored(inputQuestions);
+        val trainingCorpus = memoize(() -> {
+            val questions = loadCorpus(corpus);
+            preprocessor.addStored(questions);
+            return questions;
+        });
+
+        val recommendations = new HashMap<Long, List<MetricRecommendation>>();
+        for (val inputQuestion : inputQuestions) {
+            val trainingSetKey = trainingSetKeys.apply(inputQuestion);
+            val lookup = trainedModelCache.get(
+                    trainingSetKey,
+                    () -> train(getTrainingQuestions(trainingCorpus.get(), trainingSetKey), preprocessor)
+            );
+            val questionRecommendations = recommendMetrics(
+                    inputQuestion.getContent(),
+                    lookup.getModel(),
+                    preprocessor,
+                    limits
+            );
+            generationMetrics.generated(lookup.isTrained(), questionRecommendations.size());
+            recommendations.put(inputQuestion.getId(), questionRecommendations);
+        }
+        return recommendations;
     }
 
     /**
-     * @param content the value of the question content
-     * @return preprocessed value of the question content
+     * trains the model on the whole corpus, unless it is already published for this corpus version, and publishes it
+     * for the generations with the whole corpus, which then only make predictions
+     *
+     * @param corpusVersion current version of the corpus
+     * @param corpus        loads question objects with id, content and set of metrics
      */
-    private String getPreprocessed(String content) {
-        return reduceToStandardForm(getCleanedText(content));
+    public void trainSharedModel(long corpusVersion, Supplier<List<QuestionGenerateMetricsRequest>> corpus) {
+        val preprocessor = new PreprocessedContents(textPreprocessor);
+        trainedModelCache.publish(
+                corpusVersion,
+                () -> {
+                    val questions = loadCorpus(corpus);
+                    preprocessor.addStored(questions);
+                    return train(questions, preprocessor);
+                }
+        );
     }
 
     /**
-     * @param content the value of the question content
-     * @return string with meaningful words only which consist only of small letters
+     * @param supplier called at most once, when the returned supplier is first called
+     * @return supplier of the value of the given one
      */
-    @VisibleForTesting
-    private String getCleanedText(String content) {
-        val stopWords = getStopWords();
-        return Arrays.stream(content.toLowerCase().split(" "))
-                     .map(el -> el.replaceAll("[^a-z]", ""))
-                     .filter(el -> !stopWords.contains(el))
-                     .collect(joining(" "));
+    private static <T> Supplier<T> memoize(Supplier<T> supplier) {
+        return new Supplier<T>() {
+            private T value;
+
+            @Override
+            public T get() {
+                if (value == null) {
+                    value = supplier.get();
+                }
+                return value;
+            }
+        };
     }
 
     /**
-     * @return set of no meaningful words which can be deleted without the loss of meaning
+     * @param corpus loads question objects with id, content and set of metrics
+     * @return the loaded question objects
      */
-    @SneakyThrows
-    private Set<String> getStopWords() {
-        if (stopWords == null) {
-            stopWords = new HashSet<>(Files.readAllLines(Paths.get(
-                    "src/main/resources/static/english_stopwords.txt"
-            )));
-        }
-        return stopWords;
+    private List<QuestionGenerateMetricsRequest> loadCorpus(Supplier<List<QuestionGenerateMetricsRequest>> corpus) {
+        val questions = generationMetrics.time(CORPUS_LOADING, corpus);
+        generationMetrics.corpusLoaded(questions.size());
+        return questions;
     }
 
     /**
-     * @param content the value of the question content
-     * @return string with lemmatized words (reduced to standard form depending on the part of speech)
+     * @param corpus         question objects with id, content and set of metrics
+     * @param trainingSetKey identifies the training set
+     * @return question objects of the corpus which belong to the training set without the question left out by it
      */
-    private String reduceToStandardForm(String content) {
-        if (!StanfordCoreNlpObjectCreated) {
-            createStanfordLemmatizer();
+    private List<QuestionGenerateMetricsRequest> getTrainingQuestions(
+            List<QuestionGenerateMetricsRequest> corpus,
+            TrainingSetKey trainingSetKey
+    ) {
+        if (trainingSetKey.isFullCorpus()) {
+            return corpus;
         }
-        return lemmatize(content);
+        val excludedQuestionId = trainingSetKey.getExcludedQuestionId();
+        val questionIds = trainingSetKey.getQuestionIds();
+        return corpus.stream()
+                     .filter(question -> excludedQuestionId == null || !excludedQuestionId.equals(question.getId()))
+                     .filter(question -> questionIds == null || questionIds.contains(question.getId()))
+                     .collect(Collectors.toList());
     }
 
     /**
-     * create StanfordCoreNLP object properties, with POS tagging
+     * @param inputQuestionContent content of the question for which metrics should be generated
+     * @param model                model trained on the other questions, empty if there are not enough metrics
+     * @param preprocessor         reduces the question content to lemmas
+     * @param limits               which of the ranked metrics are recommended
+     * @return recommended metrics, the most confident first
      */
-    private void createStanfordLemmatizer() {
-        Properties props = new Properties();
-        props.setProperty("annotators", "tokenize, ssplit, pos, lemma");
-        this.pipeline = new StanfordCoreNLP(props);
-        StanfordCoreNlpObjectCreated = true;
+    private List<MetricRecommendation> recommendMetrics(
+            String inputQuestionContent,
+            Optional<TrainedModel> model,
+            PreprocessedContents preprocessor,
+            RecommendationLimits limits
+    ) {
+        if (!model.isPresent()) {
+            return emptyList();
+        }
+
+        return generationMetrics.time(PREDICTION, () -> {
+            val input = createInstances(
+                    INPUT,
+                    singletonMap(preprocessor.apply(inputQuestionContent), emptySet()),
+                    model.get()
+            );
+            if (fileGenerationConfiguration.isDumpMulanInputFiles()) {
+                val dumpDirectory = createDumpDirectory();
+                createArrfFile(dumpDirectory, INPUT, input);
+                createXmlFile(dumpDirectory, model.get().getMetricsNames());
+            }
+
+            return rank(makePrediction(model.get(), input), model.get().getMetricsNames(), limits);
+        });
     }
 
     /**
-     * @param content the value of the question content
-     * @return string with lemmatized words (reduced to standard form depending on the part of speech)
+     * @param questions    list of question objects with content and set of metrics
+     * @param preprocessor reduces the question content to lemmas
+     * @return model trained on the questions, empty if there are not enough metrics for the Mulan library to work
      */
-    private String lemmatize(String content) {
-        val sentence = new Annotation(content);
-        this.pipeline.annotate(sentence);
-
-        val lemmasBuilder = new StringBuilder();
-        for (CoreLabel token : sentence.get(TokensAnnotation.class)) {
-            lemmasBuilder.append(token.get(LemmaAnnotation.class))
-                         .append(" ");
+    private Optional<TrainedModel> train(
+            List<QuestionGenerateMetricsRequest> questions,
+            PreprocessedContents preprocessor
+    ) {
+        val metricsNames = getMetricsNamesForQuestions(questions);
+        if (metricsNames.size() < MIN_METRICS_FOR_MULAN_LIBRARY_TO_WORK) {
+            return Optional.empty();
         }
 
-        return lemmasBuilder.toString().trim();
+        val preprocessedQuestionToMetricsMap = generationMetrics.time(
+                PREPROCESSING,
+                () -> getPreprocessedQuestionsContents(createQuestionToMetricsMapping(questions), preprocessor)
+        );
+        val mergedQuestions = questions.size() - preprocessedQuestionToMetricsMap.size();
+        if (mergedQuestions > 0) {
+            log.info(
+                    "Merged {} of {} training questions with the same preprocessed content",
+                    mergedQuestions,
+                    questions.size()
+            );
+        }
+        val datasetBuild = generationMetrics.start();
+        val untrainedModel = createUntrainedModel(preprocessedQuestionToMetricsMap, metricsNames);
+        val dataset = createMultiLabelInstances(preprocessedQuestionToMetricsMap, untrainedModel);
+        generationMetrics.stop(datasetBuild, DATASET_BUILD);
+        if (fileGenerationConfiguration.isDumpMulanInputFiles()) {
+            val dumpDirectory = createDumpDirectory();
+            createArrfFile(dumpDirectory, DATA, dataset.getDataSet());
+            createXmlFile(dumpDirectory, metricsNames);
+        }
+
+        val model = untrainedModel.toBuilder()
+                                  .classifier(generationMetrics.time(TRAINING, () -> classifierTrainer.train(dataset)))
+                                  .trainedAt(System.currentTimeMillis())
+                                  .build();
+        return Optional.of(model);
     }
 
     /**
-     * generates ARRF and HTML files to pass as an input in the Mulan library
-     *
-     * @param preprocessedInputQuestionContent content of the question for which metrics should be generated
      * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
-     * @param questionsMetricsNames            list of distinct metrics from all question objects
+     * @param metricsNames                     list of distinct metrics from all question objects
+     * @return model header with the attributes and labels of the dataset, without the classifier
      */
-    private void generateFiles(
-            String preprocessedInputQuestionContent,
+    TrainedModel createUntrainedModel(
             Map<String, Set<String>> preprocessedQuestionToMetricsMap,
-            List<String> questionsMetricsNames
+            List<String> metricsNames
     ) {
-        createArrfFile(
-                DATA,
-                preprocessedInputQuestionContent,
-                preprocessedQuestionToMetricsMap,
-                questionsMetricsNames
-        );
+        val lemmas = createListOfDistinctTokens(preprocessedQuestionToMetricsMap);
+        val listOfAttributes = getListOfAttributesFrom(lemmas, metricsNames);
+        return TrainedModel
+                .builder()
+                .header(new Instances(DATA.getRelationTitle(), createAttributes(listOfAttributes), 0))
+                .tokenIdToColumnIdMap(vocabulary.getTokenIdToColumnIdMap(lemmas, metricsNames))
+                .labelsMetaData(createLabelsMetaData(metricsNames))
+                .metricsNames(metricsNames)
+                .build();
+    }
 
-        createArrfFile(
-                INPUT,
-                preprocessedInputQuestionContent,
-                preprocessedQuestionToMetricsMap,
-                questionsMetricsNames
-        );
+    /**
+     * @param questions list of question objects with content and set of metrics
+     * @return list of distinct metrics from all question objects
+     */
+    List<String> getMetricsNamesForQuestions(List<QuestionGenerateMetricsRequest> questions) {
+        return questions.stream()
+                        .flatMap(q -> q.getMetrics().stream())
+                        .map(MetricResponse::getName)
+                        .distinct()
+                        .collect(Collectors.toList());
+    }
 
-        createXmlFile(questionsMetricsNames);
+    /**
+     * @param questions list of question objects with content and set of metrics
+     * @return dictionary with questions contents as keys and set of metrics as values
+     */
+    Map<String, Set<String>> createQuestionToMetricsMapping(
+            List<QuestionGenerateMetricsRequest> questions
+    ) {
+        return questions
+                .stream()
+                .collect(toMap(
+                        QuestionBaseDto::getContent,
+                        question -> question.getMetrics().stream().map(MetricResponse::getName).collect(toSet()),
+                        (oldMetrics, newMetrics) -> concat(oldMetrics.stream(), newMetrics.stream()).collect(toSet())
+                ));
     }
 
     /**
-     * create ARRF file from dataset or from input depending on the identifier
+     * the questions which differ only in stop words, punctuation or word forms have the same preprocessed content,
+     * they are merged into one with the union of their metrics
+     *
+     * @param questionToMetricsMap dictionary with questions contents as keys and set of metrics as values
+     * @param preprocessor         reduces the question content to lemmas
+     * @return dictionary with preprocessed questions contents as keys and set of metrics as values
+     */
+    Map<String, Set<String>> getPreprocessedQuestionsContents(
+            Map<String, Set<String>> questionToMetricsMap,
+            PreprocessedContents preprocessor
+    ) {
+        preprocessor.preprocessAll(questionToMetricsMap.keySet());
+        return questionToMetricsMap
+                .keySet().stream()
+                .collect(toMap(
+                        preprocessor,
+                        questionToMetricsMap::get,
+                        (oldMetrics, newMetrics) -> concat(oldMetrics.stream(), newMetrics.stream()).collect(toSet())
+                ));
+    }
+
+    /**
+     * builds the Mulan dataset in memory from the preprocessed questions
      *
-     * @param identifier                    define the type of file (input file or data set file)
-     * @param preprocessedInputQuestionContent preprocessed content of the input question
      * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
-     * @param questionMetricsNames             list of distinct metrics from all question objects
+     * @param model                            model header with the attributes and labels of the dataset
+     * @return multi-label dataset which can be passed to the Mulan library
      */
     @SneakyThrows
-    private void createArrfFile(
-            FileType identifier,
-            String preprocessedInputQuestionContent,
+    MultiLabelInstances createMultiLabelInstances(
             Map<String, Set<String>> preprocessedQuestionToMetricsMap,
-            List<String> questionMetricsNames
+            TrainedModel model
     ) {
-        val fileContents = createArrfFileContents(
-                identifier,
-                preprocessedInputQuestionContent,
-                preprocessedQuestionToMetricsMap,
-                questionMetricsNames
-        );
-
-        BufferedWriter writer = new BufferedWriter(
-                new FileWriter(
-                        fileGenerationConfiguration
-                                .getMulanInputFilesDirectory() + "/arffFile" + identifier.getFileName() + ".arrf"
-                )
+        return new MultiLabelInstances(
+                createInstances(DATA, preprocessedQuestionToMetricsMap, model),
+                model.getLabelsMetaData()
         );
-        writer.write(fileContents);
-        writer.close();
     }
 
     /**
-     * @param identifier                       define the type of file (input file or data set file)
-     * @param preprocessedInputQuestionContent preprocessed content of the input question
+     * @param identifier                       define the type of dataset (input or data set)
      * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
-     * @param questionMetricsNames             list of distinct metrics from all question objects
-     * @return content of the file
+     * @param model                            model header with the attributes and labels of the dataset
+     * @return dataset with one instance per question
      */
-    private String createArrfFileContents(
+    Instances createInstances(
             FileType identifier,
-            String preprocessedInputQuestionContent,
             Map<String, Set<String>> preprocessedQuestionToMetricsMap,
-            List<String> questionMetricsNames
+            TrainedModel model
     ) {
-        val fileContentsBuilder = new StringBuilder();
-
-        fileContentsBuilder.append(format(
-                "@relation %s\n\n", identifier.getRelationTitle()
-        ));
-
-        val listOfAttributes = getListOfAttributesFrom(
-                preprocessedInputQuestionContent,
-                preprocessedQuestionToMetricsMap,
-                questionMetricsNames
-        );
-        val attributeToColumnIdMap = getAttributeToColumnIdMap(listOfAttributes);
-        addAttributesPartOfFile(fileContentsBuilder, listOfAttributes);
-
-        addDataPartOfFile(
-                fileContentsBuilder,
-                identifier.getQuestionToMetricsMapRetriever().apply(
-                        preprocessedQuestionToMetricsMap,
-                        preprocessedInputQuestionContent
-                ),
-                listOfAttributes,
-                attributeToColumnIdMap
-        );
-
-        return fileContentsBuilder.toString();
+        val instances = new Instances(model.getHeader(), preprocessedQuestionToMetricsMap.size());
+        instances.setRelationName(identifier.getRelationTitle());
+        addDataPartOf(instances, preprocessedQuestionToMetricsMap, model.getTokenIdToColumnIdMap());
+        return instances;
     }
 
     /**
-     * @param preprocessedInputQuestionContent preprocessed content of the input question
-     * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
-     * @param questionMetricsNames             list of distinct metrics from all question objects
-     * @return attributes for file = concatenated list of distinct contents tokens and metrics
+     * @param listOfDistinctQuestionsContentsTokens list of distinct words, collected from the questions contents
+     * @param questionMetricsNames                  list of distinct metrics from all question objects
+     * @return names of the attributes for dataset = concatenated list of distinct contents tokens and metrics
      */
     private List<String> getListOfAttributesFrom(
-            String preprocessedInputQuestionContent,
-            Map<String, Set<String>> preprocessedQuestionToMetricsMap,
+            List<String> listOfDistinctQuestionsContentsTokens,
             List<String> questionMetricsNames
     ) {
-        val listOfDistinctQuestionsContentsTokens = createListOfDistinctTokens(
-                preprocessedInputQuestionContent,
-                preprocessedQuestionToMetricsMap
-        );
         return Stream
-                .of(listOfDistinctQuestionsContentsTokens, questionMetricsNames)
-                .flatMap(Collection::stream)
+                .concat(
+                        listOfDistinctQuestionsContentsTokens.stream().map(lemma -> toAttributeName(LEMMA, lemma)),
+                        questionMetricsNames.stream().map(metricName -> toAttributeName(METRIC, metricName))
+                )
                 .collect(Collectors.toList());
     }
 
     /**
-     * @param preprocessedInputQuestionContent preprocessed content of the input question
      * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
-     * @return list of distinct words, collected from the questions contents
+     * @return list of distinct words, collected from the questions contents, the contents of stop words only
+     * have none
      */
-    private List<String> createListOfDistinctTokens(
-            String preprocessedInputQuestionContent,
-            Map<String, Set<String>> preprocessedQuestionToMetricsMap
-    ) {
-        return concat(
-                Stream.of(preprocessedInputQuestionContent),
-                preprocessedQuestionToMetricsMap.keySet().stream()
-        ).flatMap(str -> Arrays.stream(str.split(" ")))
-         .distinct()
-         .collect(Collectors.toList());
+    private List<String> createListOfDistinctTokens(Map<String, Set<String>> preprocessedQuestionToMetricsMap) {
+        return preprocessedQuestionToMetricsMap
+                .keySet().stream()
+                .flatMap(str -> Arrays.stream(str.split(" ")))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
     }
 
-    private Map<String, Integer> getAttributeToColumnIdMap(
-            List<String> listOfAttributes
-    ) {
-        Map<String, Integer> attributeToColumnIdMap = new HashMap<>();
+    /**
+     * @param listOfAttributes names of the attributes for dataset
+     * @return binary nominal attributes with the values {0, 1}
+     */
+    private ArrayList<Attribute> createAttributes(List<String> listOfAttributes) {
+        val attributes = new ArrayList<Attribute>(listOfAttributes.size());
         for (val attribute : listOfAttributes) {
-            attributeToColumnIdMap.put(attribute, listOfAttributes.indexOf(attribute));
+            attributes.add(new Attribute(attribute, BINARY_VALUES));
         }
-        return attributeToColumnIdMap;
+        return attributes;
     }
 
     /**
-     * add attributes part to the file
+     * add one sparse instance per question to the dataset, only the attributes set to "1" are stored,
+     * so a row costs the number of its words and metrics, not the size of the vocabulary,
+     * words which are not attributes of the dataset are skipped
      *
-     * @param fileContentsBuilder    content of the file
-     * @param listOfAttributes       attributes for file = concatenated list of distinct contents tokens and metrics
+     * @param instances                        dataset with the attributes already defined
+     * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
+     * @param tokenIdToColumnIdMap             key - id of the token in the vocabulary,
+     *                                         value - its index in the attributes of the dataset
      */
-    private void addAttributesPartOfFile(
-            StringBuilder fileContentsBuilder,
-            List<String> listOfAttributes
+    private void addDataPartOf(
+            Instances instances,
+            Map<String, Set<String>> preprocessedQuestionToMetricsMap,
+            Map<Integer, Integer> tokenIdToColumnIdMap
     ) {
-        for (val attribute : listOfAttributes) {
-            fileContentsBuilder
-                    .append("@attribute ")
-                    .append(attribute.replaceAll("\\s+", ""))
-                    .append(" {0, 1}\n");
+        for (val entry : preprocessedQuestionToMetricsMap.entrySet()) {
+            val columnIds = new TreeSet<Integer>();
+
+            for (val word : entry.getKey().split(" ")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                val lemmaId = vocabulary.findLemmaId(word);
+                if (lemmaId != null && tokenIdToColumnIdMap.containsKey(lemmaId)) {
+                    columnIds.add(tokenIdToColumnIdMap.get(lemmaId));
+                }
+            }
+
+            for (val metric : entry.getValue()) {
+                columnIds.add(tokenIdToColumnIdMap.get(vocabulary.getMetricId(metric)));
+            }
+
+            val indices = columnIds.stream().mapToInt(Integer::intValue).toArray();
+            val values = new double[indices.length];
+            Arrays.fill(values, 1);
+            instances.add(new SparseInstance(1, values, indices, instances.numAttributes()));
         }
     }
 
-
     /**
-     * @param fileContentsBuilder              content of the file
-     * @param preprocessedQuestionToMetricsMap keys - preprocessed questions contents, values - set of metrics
-     * @param listOfAttributes                 attributes for file = concatenated list of distinct contents tokens and metrics
-     * @param attributeToColumnIdMap           key - attribute, value - it's index in the listOfAttributes
+     * @param questionMetricsNames list of distinct metrics from all question objects
+     * @return flat labels hierarchy with one label per metric
      */
-    private void addDataPartOfFile(
-            StringBuilder fileContentsBuilder,
-            Map<String, Set<String>> preprocessedQuestionToMetricsMap,
-            List<String> listOfAttributes,
-            Map<String, Integer> attributeToColumnIdMap
-    ) {
-        fileContentsBuilder.append("\n@data\n");
+    private LabelsMetaData createLabelsMetaData(List<String> questionMetricsNames) {
+        val labelsMetaData = new LabelsMetaDataImpl();
+        for (val m : questionMetricsNames) {
+            labelsMetaData.addRootNode(new LabelNodeImpl(toAttributeName(METRIC, m)));
+        }
+        return labelsMetaData;
+    }
 
-        for (val entry : preprocessedQuestionToMetricsMap.entrySet()) {
-            val metricsRow = Arrays.stream(new int[listOfAttributes.size()]).boxed().collect(Collectors.toList());
+    /**
+     * a lemma and a metric name can be the same word, so the names of the attributes are prefixed by the kind
+     * of the token, otherwise the dataset could not be created with two attributes of the same name
+     *
+     * @param kind  kind of the token
+     * @param value lemma or metric name
+     * @return name of the attribute
+     */
+    static String toAttributeName(Token.Kind kind, String value) {
+        return kind.name().toLowerCase(Locale.ROOT) + ":" + value;
+    }
 
-            val keyWords = Arrays.stream(entry.getKey().split(" ")).collect(Collectors.toList());
-            keyWords.forEach(w -> metricsRow.set(attributeToColumnIdMap.get(w), 1));
+    /**
+     * @param kind          kind of the token
+     * @param attributeName name of the attribute made by {@link #toAttributeName(Token.Kind, String)}
+     * @return lemma or metric name
+     */
+    static String fromAttributeName(Token.Kind kind, String attributeName) {
+        return attributeName.substring(toAttributeName(kind, "").length());
+    }
 
-            val metricsForQ = entry.getValue();
-            metricsForQ.forEach(m -> metricsRow.set(attributeToColumnIdMap.get(m), 1));
+    /**
+     * every dump goes to its own directory, so concurrent generations do not overwrite each other's files
+     *
+     * @return new directory inside the mulanInputFilesDirectory
+     */
+    @SneakyThrows
+    private Path createDumpDirectory() {
+        return Files.createTempDirectory(
+                Paths.get(fileGenerationConfiguration.getMulanInputFilesDirectory()),
+                "generation-"
+        );
+    }
 
-            fileContentsBuilder.append(
-                    metricsRow.stream().map(Object::toString).collect(joining(","))
-            ).append("\n");
-        }
+    /**
+     * writes the dataset as ARRF file to inspect what was passed to the Mulan library
+     *
+     * @param dumpDirectory directory to write the file to
+     * @param identifier    define the type of file (input file or data set file)
+     * @param instances     dataset to write
+     */
+    @SneakyThrows
+    private void createArrfFile(Path dumpDirectory, FileType identifier, Instances instances) {
+        BufferedWriter writer = Files.newBufferedWriter(
+                dumpDirectory.resolve("arffFile" + identifier.getFileName() + ".arrf")
+        );
+        writer.write(instances.toString());
+        writer.close();
     }
 
     /**
+     * @param dumpDirectory        directory to write the file to
      * @param questionMetricsNames list of distinct metrics from all question objects
      */
     @SneakyThrows
-    private void createXmlFile(List<String> questionMetricsNames) {
+    private void createXmlFile(Path dumpDirectory, List<String> questionMetricsNames) {
         val fileContents = createXmlFileContent(questionMetricsNames);
-        BufferedWriter writer = new BufferedWriter(
-                new FileWriter(
-                        fileGenerationConfiguration.getMulanInputFilesDirectory() + "/xmlFile.xml"
-                )
-        );
+        BufferedWriter writer = Files.newBufferedWriter(dumpDirectory.resolve("xmlFile.xml"));
         writer.write(fileContents);
         writer.close();
     }
@@ -412,7 +605,7 @@ public class MetricsGenerator {
         for (val m : questionMetricsNames) {
             fileContentsBuilder
                     .append("<label name=\"")
-                    .append(m.replaceAll("\\s+", ""))
+                    .append(toAttributeName(METRIC, m))
                     .append("\"></label>\n");
         }
 
@@ -422,88 +615,77 @@ public class MetricsGenerator {
     }
 
     /**
+     * the model keeps no state between predictions, so the generations share it without a lock
      *
-     * @return RAkEl model
+     * @param model         trained model
+     * @param unlabeledData dataset with the single instance built from the input question
+     * @return which metrics were chosen for the question and the confidences of all metrics
      */
     @SneakyThrows
-    private RAkEL trainClassifier() {
-        //Load data
-        val arrfDataFilePath = fileGenerationConfiguration.getMulanInputFilesDirectory() + "/arffFileData.arrf";
-        val xmlFilePath = fileGenerationConfiguration.getMulanInputFilesDirectory() + "/xmlFile.xml";
-        MultiLabelInstances dataset = new MultiLabelInstances(arrfDataFilePath, xmlFilePath);
-
-        //create an instance of the learning algorithm
-        RAkEL model = new RAkEL(new LabelPowerset(new J48()));
-
-        //train the classifier
-        model.setSizeOfSubset(2);
-        model.build(dataset);
-
-        return model;
+    MultiLabelOutput makePrediction(TrainedModel model, Instances unlabeledData) {
+        return model.getClassifier().makePrediction(unlabeledData.firstInstance());
     }
 
     /**
-     *
-     * @param model RAkEl model
-     * @return list of boolean values which identify which metrics were generated to the question
+     * @param output       which metrics were chosen for the question and the confidences of all metrics
+     * @param metricsNames list of metrics names in the order of the labels
+     * @param limits       which of the ranked metrics are recommended
+     * @return recommended metrics, the most confident first, the metrics of equal confidence in the order of the labels
      */
-    @SneakyThrows
-    private boolean[] makePredictions(RAkEL model) {
-        //Load input
-        val arrfInputFilePath = fileGenerationConfiguration.getMulanInputFilesDirectory() + "/arffFileInput.arrf";
-        val xmlFilePath = fileGenerationConfiguration.getMulanInputFilesDirectory() + "/xmlFile.xml";
-        MultiLabelInstances unlabeledData = new MultiLabelInstances(arrfInputFilePath, xmlFilePath);
-
-        boolean[] bipartion = new boolean[0];
-        int numInstances = unlabeledData.getNumInstances();
-        for (int instanceIndex = 0; instanceIndex < numInstances; instanceIndex++) {
-            val instance = unlabeledData.getDataSet().instance(instanceIndex);
-            MultiLabelOutput output = model.makePrediction(instance);
-            if (output.hasBipartition()) {
-                bipartion = output.getBipartition();
+    private List<MetricRecommendation> rank(
+            MultiLabelOutput output,
+            List<String> metricsNames,
+            RecommendationLimits limits
+    ) {
+        val bipartition = output.getBipartition();
+        val confidences = output.hasConfidences() ? output.getConfidences() : new double[metricsNames.size()];
+        if (!output.hasConfidences()) {
+            for (int i = 0; i < confidences.length; ++i) {
+                confidences[i] = bipartition[i] ? 1 : 0;
             }
         }
 
-        return bipartion;
+        val minConfidence = limits.getMinConfidence();
+        val chosenLabels = IntStream.range(0, metricsNames.size())
+                                    .filter(i -> minConfidence == null || confidences[i] >= minConfidence)
+                                    .boxed()
+                                    .sorted(Comparator.comparingDouble((Integer i) -> confidences[i]).reversed())
+                                    .limit(limits.getTopK() == null ? Long.MAX_VALUE : limits.getTopK())
+                                    .collect(Collectors.toList());
+
+        val metricsIds = metricCatalog.getIds(
+                chosenLabels.stream().map(metricsNames::get).collect(Collectors.toList())
+        );
+        return chosenLabels.stream()
+                           .filter(i -> metricsIds.containsKey(metricsNames.get(i)))
+                           .map(i -> new MetricRecommendation(
+                                   metricsIds.get(metricsNames.get(i)),
+                                   metricsNames.get(i),
+                                   confidences[i],
+                                   bipartition[i]
+                           ))
+                           .collect(Collectors.toList());
     }
 
     /**
-     *
-     * @param bipartion list of boolean values which identify which metrics were generated to the question
-     * @param metricsNames list of metrics names
-     * @return list of ids of chosen metrics
+     * @param recommendations recommended metrics
+     * @return list of ids of the recommended metrics chosen by the classifier
      */
-    private List<Long> getMetricsIds(boolean[] bipartion, List<String> metricsNames) {
-        val metricsNamesToReturn = new ArrayList<String>();
-        for (int i = 0; i < metricsNames.size(); ++i) {
-            if (bipartion[i]) {
-                metricsNamesToReturn.add(metricsNames.get(i));
-            }
-        }
-
-        return metricRepository.findAllByNameIn(metricsNamesToReturn)
-                               .stream()
-                               .map(Metric::getId)
-                               .collect(Collectors.toList());
+    private List<Long> getMetricsIds(List<MetricRecommendation> recommendations) {
+        return recommendations.stream()
+                              .filter(MetricRecommendation::isChosen)
+                              .map(MetricRecommendation::getMetricId)
+                              .collect(Collectors.toList());
     }
 
     @Getter
     @AllArgsConstructor
     public enum FileType{
-        DATA(
-                "Data",
-                "InfoFromTheDataset",
-                (map, str) -> map
-        ),
-        INPUT(
-                "Input",
-                "InfoFromTheInput",
-                (map, str) -> singletonMap(str, emptySet())
-        );
+        DATA("Data", "InfoFromTheDataset"),
+        INPUT("Input", "InfoFromTheInput");
 
         private final String fileName;
         private final String relationTitle;
-        private final BiFunction<Map<String, Set<String>>, String, Map<String, Set<String>>> questionToMetricsMapRetriever;
     }
 
 }
@@ -0,0 +1,155 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import mulan.classifier.MultiLabelLearner;
+import mulan.data.LabelsMetaData;
+import org.springframework.stereotype.Component;
+import weka.core.Instances;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.innometrics.gqm_api.model.Token.Kind.LEMMA;
+
+/**
+ * Keeps the model trained on the whole corpus in the file metrics-generation.modelSnapshotFile, so a restarted
+ * or a new instance of the application predicts with it right away instead of training it again. The snapshot
+ * is used only while the corpus version and the lemmatizer are the same as the ones it was trained with.
+ * They are written in front of the model, so a stale snapshot is recognized without reading the model.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ModelSnapshotStore {
+
+    private final FileGenerationConfiguration fileGenerationConfiguration;
+    private final TextPreprocessor textPreprocessor;
+    private final Vocabulary vocabulary;
+
+    /**
+     * @param corpusVersion current version of the corpus
+     * @return model of the snapshot, empty if there is no snapshot of this corpus version or it could not be read
+     */
+    public Optional<TrainedModel> load(long corpusVersion) {
+        val file = getSnapshotFile();
+        if (!file.isPresent() || !Files.exists(file.get())) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream input = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(file.get())))) {
+            if (input.readLong() != Snapshot.serialVersionUID
+                    || input.readLong() != corpusVersion
+                    || !input.readUTF().equals(textPreprocessor.getLemmatizerType().name())) {
+                return Optional.empty();
+            }
+            val snapshot = (Snapshot) input.readObject();
+            return Optional.of(snapshot.toTrainedModel(vocabulary));
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.warn("Model snapshot {} could not be read", file.get(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * the snapshot is written to a temporary file of its own next to the file and moved over it,
+     * so the file always holds a whole snapshot, even when several of them are saved at the same time
+     *
+     * @param corpusVersion version of the corpus the model was trained on
+     * @param model         model trained on the whole corpus
+     */
+    public void save(long corpusVersion, TrainedModel model) {
+        val file = getSnapshotFile();
+        if (!file.isPresent()) {
+            return;
+        }
+        val snapshot = new Snapshot(model);
+        Path temporaryFile = null;
+        try {
+            val absoluteFile = file.get().toAbsolutePath();
+            temporaryFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName() + ".", ".tmp");
+            try (ObjectOutputStream output = new ObjectOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeLong(Snapshot.serialVersionUID);
+                output.writeLong(corpusVersion);
+                output.writeUTF(textPreprocessor.getLemmatizerType().name());
+                output.writeObject(snapshot);
+            }
+            Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Model snapshot {} could not be written", file.get(), e);
+            deleteIfExists(temporaryFile);
+        }
+    }
+
+    private void deleteIfExists(Path temporaryFile) {
+        if (temporaryFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            log.warn("Temporary model snapshot {} could not be deleted", temporaryFile, e);
+        }
+    }
+
+    private Optional<Path> getSnapshotFile() {
+        return Optional.ofNullable(fileGenerationConfiguration.getModelSnapshotFile()).map(Paths::get);
+    }
+
+    /**
+     * trained model with the names of its lemmas and metrics instead of the ids, which belong to the database
+     * of the instance the model was trained by, it follows the version of the snapshot, the corpus version
+     * and the lemmatizer in the file
+     */
+    private static class Snapshot implements Serializable {
+
+        /**
+         * 2 - the attribute names are prefixed by the kind of the token
+         * 3 - the members of the model keep the attributes they are trained on instead of the filters
+         * 4 - the time the model was trained is kept
+         * 5 - the corpus version and the lemmatizer are written in front of the snapshot
+         */
+        private static final long serialVersionUID = 5L;
+
+        private final MultiLabelLearner classifier;
+        private final Instances header;
+        private final LabelsMetaData labelsMetaData;
+        private final List<String> lemmas;
+        private final List<String> metricsNames;
+        private final long trainedAt;
+
+        Snapshot(TrainedModel model) {
+            this.classifier = model.getClassifier();
+            this.header = model.getHeader();
+            this.labelsMetaData = model.getLabelsMetaData();
+            this.metricsNames = new ArrayList<>(model.getMetricsNames());
+            this.trainedAt = model.getTrainedAt();
+            this.lemmas = new ArrayList<>();
+            for (int i = 0; i < header.numAttributes() - metricsNames.size(); i++) {
+                lemmas.add(MetricsGenerator.fromAttributeName(LEMMA, header.attribute(i).name()));
+            }
+        }
+
+        TrainedModel toTrainedModel(Vocabulary vocabulary) {
+            return TrainedModel.builder()
+                               .classifier(classifier)
+                               .header(header)
+                               .tokenIdToColumnIdMap(vocabulary.getTokenIdToColumnIdMap(lemmas, metricsNames))
+                               .labelsMetaData(labelsMetaData)
+                               .metricsNames(metricsNames)
+                               .trainedAt(trainedAt)
+                               .build();
+        }
+
+    }
+
+}
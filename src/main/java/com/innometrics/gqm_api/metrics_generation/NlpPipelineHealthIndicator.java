@@ -0,0 +1,34 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports metrics generation as out of service while the NLP models are still loading
+ */
+@Component
+@RequiredArgsConstructor
+public class NlpPipelineHealthIndicator implements HealthIndicator {
+
+    private final TextPreprocessor textPreprocessor;
+
+    @Override
+    public Health health() {
+        if (textPreprocessor.isReady()) {
+            return Health.up()
+                         .withDetail("lemmaMemoHits", textPreprocessor.getLemmaMemoHits())
+                         .withDetail("lemmaMemoMisses", textPreprocessor.getLemmaMemoMisses())
+                         .withDetail("lemmaMemoSize", textPreprocessor.getLemmaMemoSize())
+                         .build();
+        }
+        val loadingFailure = textPreprocessor.getLoadingFailure();
+        if (loadingFailure != null) {
+            return Health.down().withException(loadingFailure).build();
+        }
+        return Health.outOfService().withDetail("reason", "NLP models are loading").build();
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import lombok.val;
+import mulan.classifier.MultiLabelLearner;
+import mulan.classifier.MultiLabelOutput;
+import mulan.classifier.meta.MultiLabelMetaLearner;
+import mulan.classifier.meta.RAkEL;
+import mulan.data.MultiLabelInstances;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+import weka.core.TechnicalInformation;
+import weka.filters.Filter;
+import weka.filters.unsupervised.attribute.Remove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * RAkEL which trains its members on a fork join pool. The label subsets are drawn one after another
+ * with the generator of the same seed as RAkEL does, so the members and the predictions are the same
+ * as the ones of RAkEL with the same seed, whatever the order the members are trained in.
+ * A trained model keeps no state between predictions, so it may predict on several threads at once.
+ */
+public class ParallelRAkEL extends MultiLabelMetaLearner {
+
+    private static final double THRESHOLD = 0.5;
+
+    private final int sizeOfSubset;
+
+    private final int seed;
+
+    private final transient ForkJoinPool pool;
+
+    /**
+     * sorted indices of the labels of every member, among all labels
+     */
+    private int[][] classIndicesPerSubset;
+
+    /**
+     * sorted indices of the attributes the member is trained on, all but the labels not predicted by the member
+     */
+    private int[][] attributesPerSubset;
+
+    /**
+     * header of the dataset the member is trained on
+     */
+    private Instances[] headerPerSubset;
+
+    private MultiLabelLearner[] subsetClassifiers;
+
+    /**
+     * @param baseLearner  learner copied for every member
+     * @param sizeOfSubset number of labels of every member
+     * @param seed         seed of the generator which draws the label subsets
+     * @param pool         pool the members are trained on
+     */
+    public ParallelRAkEL(MultiLabelLearner baseLearner, int sizeOfSubset, int seed, ForkJoinPool pool) {
+        super(baseLearner);
+        this.sizeOfSubset = sizeOfSubset;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    @Override
+    protected void buildInternal(MultiLabelInstances trainingData) throws Exception {
+        if (sizeOfSubset >= numLabels) {
+            throw new IllegalArgumentException("Size of subsets should be less than the number of labels");
+        }
+        val numOfModels = Math.min(2 * numLabels, RAkEL.binomial(numLabels, sizeOfSubset));
+        classIndicesPerSubset = drawLabelSubsets(numOfModels);
+        attributesPerSubset = new int[numOfModels][];
+        headerPerSubset = new Instances[numOfModels];
+        subsetClassifiers = new MultiLabelLearner[numOfModels];
+
+        val trainData = trainingData.getDataSet();
+        val members = new ArrayList<Callable<Void>>(numOfModels);
+        for (int model = 0; model < numOfModels; model++) {
+            val removedAttributes = getRemovedAttributes(classIndicesPerSubset[model]);
+            val remove = createRemoveFilter(removedAttributes, trainData);
+            attributesPerSubset[model] = getKeptAttributes(removedAttributes, trainData.numAttributes());
+            headerPerSubset[model] = remove.getOutputFormat();
+            subsetClassifiers[model] = baseLearner.makeCopy();
+            val member = model;
+            members.add(() -> {
+                debug("Building model " + (member + 1) + "/" + numOfModels
+                        + ", subset: " + Arrays.toString(classIndicesPerSubset[member]));
+                val trainSubset = Filter.useFilter(trainData, remove);
+                subsetClassifiers[member].build(trainingData.reintegrateModifiedDataSet(trainSubset));
+                return null;
+            });
+        }
+        awaitAll(pool.invokeAll(members));
+    }
+
+    /**
+     * @param numOfModels number of members
+     * @return distinct sorted label subsets in the order RAkEL draws them
+     */
+    private int[][] drawLabelSubsets(int numOfModels) {
+        val rnd = new Random(seed);
+        val combinations = new HashSet<String>();
+        val subsets = new int[numOfModels][];
+        for (int model = 0; model < numOfModels; model++) {
+            do {
+                val selected = new boolean[numLabels];
+                subsets[model] = new int[sizeOfSubset];
+                for (int j = 0; j < sizeOfSubset; j++) {
+                    int randomLabel = rnd.nextInt(numLabels);
+                    while (selected[randomLabel]) {
+                        randomLabel = rnd.nextInt(numLabels);
+                    }
+                    selected[randomLabel] = true;
+                    subsets[model][j] = randomLabel;
+                }
+                Arrays.sort(subsets[model]);
+            } while (!combinations.add(Arrays.toString(subsets[model])));
+        }
+        return subsets;
+    }
+
+    /**
+     * @param subset sorted indices of the labels kept for the member
+     * @return indices of the attributes of all other labels
+     */
+    private int[] getRemovedAttributes(int[] subset) {
+        val indicesToRemove = new int[numLabels - sizeOfSubset];
+        int k = 0;
+        for (int j = 0; j < numLabels; j++) {
+            if (Arrays.binarySearch(subset, j) < 0) {
+                indicesToRemove[k++] = labelIndices[j];
+            }
+        }
+        return indicesToRemove;
+    }
+
+    /**
+     * @param indicesToRemove indices of the attributes of the labels not predicted by the member
+     * @param trainData       dataset the filter is set up for
+     * @return filter which removes the attributes
+     */
+    private static Remove createRemoveFilter(int[] indicesToRemove, Instances trainData) throws Exception {
+        val filter = new Remove();
+        filter.setAttributeIndicesArray(indicesToRemove);
+        filter.setInputFormat(trainData);
+        filter.setInvertSelection(false);
+        return filter;
+    }
+
+    /**
+     * @param indicesToRemove indices of the attributes of the labels not predicted by the member
+     * @param numAttributes   number of attributes of the dataset
+     * @return sorted indices of all other attributes
+     */
+    private static int[] getKeptAttributes(int[] indicesToRemove, int numAttributes) {
+        val removed = new boolean[numAttributes];
+        for (int index : indicesToRemove) {
+            removed[index] = true;
+        }
+        val kept = new int[numAttributes - indicesToRemove.length];
+        int k = 0;
+        for (int i = 0; i < numAttributes; i++) {
+            if (!removed[i]) {
+                kept[k++] = i;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * does what the remove filter of the member does, without the state the filter keeps between instances
+     *
+     * @param instance instance of the whole dataset
+     * @param model    index of the member
+     * @return instance with the attributes the member is trained on
+     */
+    private Instance project(Instance instance, int model) {
+        val attributes = attributesPerSubset[model];
+        val values = new double[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            values[i] = instance.value(attributes[i]);
+        }
+        Instance projected = instance instanceof SparseInstance
+                ? new SparseInstance(instance.weight(), values)
+                : new DenseInstance(instance.weight(), values);
+        projected.setDataset(headerPerSubset[model]);
+        return projected;
+    }
+
+    private static void awaitAll(List<Future<Void>> futures) throws Exception {
+        for (val future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+    }
+
+    /**
+     * the members vote for their labels, a label is chosen when at least half of its members chose it,
+     * the confidence of the label is the share of its members which chose it
+     */
+    @Override
+    protected MultiLabelOutput makePredictionInternal(Instance instance) throws Exception {
+        val sumVotes = new double[numLabels];
+        val lengthVotes = new double[numLabels];
+        for (int model = 0; model < subsetClassifiers.length; model++) {
+            val subsetOutput = subsetClassifiers[model].makePrediction(project(instance, model));
+            for (int j = 0; j < sizeOfSubset; j++) {
+                val label = classIndicesPerSubset[model][j];
+                sumVotes[label] += subsetOutput.getBipartition()[j] ? 1 : 0;
+                lengthVotes[label]++;
+            }
+        }
+
+        val confidences = new double[numLabels];
+        val bipartition = new boolean[numLabels];
+        for (int i = 0; i < numLabels; i++) {
+            confidences[i] = lengthVotes[i] != 0 ? sumVotes[i] / lengthVotes[i] : 0;
+            bipartition[i] = confidences[i] >= THRESHOLD;
+        }
+        return new MultiLabelOutput(bipartition, confidences);
+    }
+
+    @Override
+    public TechnicalInformation getTechnicalInformation() {
+        return new RAkEL().getTechnicalInformation();
+    }
+
+    @Override
+    public String globalInfo() {
+        return "RAkEL with the members trained in parallel";
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Preprocessed forms of the questions contents met during one generation, every distinct content
+ * is preprocessed at most once and the form stored with the question is taken instead of running NLP again
+ */
+@RequiredArgsConstructor
+class PreprocessedContents implements Function<String, String> {
+
+    private final TextPreprocessor textPreprocessor;
+    private final Map<String, String> preprocessedContents = new HashMap<>();
+
+    /**
+     * @param questions question objects with content and its stored preprocessed form if any,
+     *                  the forms stored by another lemmatizer are skipped
+     */
+    void addStored(List<QuestionGenerateMetricsRequest> questions) {
+        for (val question : questions) {
+            if (question.getContent() != null && question.getPreprocessedContent() != null
+                    && question.getPreprocessedBy() == textPreprocessor.getLemmatizerType()) {
+                preprocessedContents.putIfAbsent(question.getContent(), question.getPreprocessedContent());
+            }
+        }
+    }
+
+    /**
+     * preprocesses all contents which are not preprocessed yet in parallel
+     *
+     * @param contents questions contents
+     */
+    void preprocessAll(Collection<String> contents) {
+        val missing = contents.stream()
+                              .filter(content -> !preprocessedContents.containsKey(content))
+                              .collect(toList());
+        if (!missing.isEmpty()) {
+            preprocessedContents.putAll(textPreprocessor.getPreprocessed(missing));
+        }
+    }
+
+    /**
+     * @param content the value of the question content
+     * @return preprocessed value of the question content
+     */
+    @Override
+    public String apply(String content) {
+        return preprocessedContents.computeIfAbsent(content, textPreprocessor::getPreprocessed);
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.exception.BadRequestException;
+import lombok.Value;
+
+/**
+ * which of the ranked metrics are recommended, without limits all metrics the model knows are recommended
+ */
+@Value
+public class RecommendationLimits {
+
+    public static final RecommendationLimits NONE = new RecommendationLimits(null, null);
+
+    /**
+     * maximal number of the recommended metrics, null for all of them
+     */
+    Integer topK;
+
+    /**
+     * minimal confidence of the recommended metrics, null for any confidence
+     */
+    Double minConfidence;
+
+    /**
+     * @return true if neither the number nor the confidence of the recommended metrics is limited
+     */
+    public boolean isUnlimited() {
+        return topK == null && minConfidence == null;
+    }
+
+    /**
+     * @throws BadRequestException if top k is not positive or the minimal confidence is not between 0 and 1
+     */
+    public static RecommendationLimits of(Integer topK, Double minConfidence) {
+        if (topK != null && topK < 1) {
+            throw new BadRequestException("topK should be positive");
+        }
+        if (minConfidence != null && (minConfidence < 0 || minConfidence > 1)) {
+            throw new BadRequestException("minConfidence should be between 0 and 1");
+        }
+        return new RecommendationLimits(topK, minConfidence);
+    }
+
+}
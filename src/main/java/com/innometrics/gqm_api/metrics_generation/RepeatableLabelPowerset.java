@@ -0,0 +1,37 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import mulan.classifier.transformation.LabelPowerset;
+import weka.classifiers.Classifier;
+
+import java.util.Random;
+
+/**
+ * LabelPowerset breaks ties between equally probable label sets with a random generator which advances
+ * with every prediction, so a cached model could answer differently for the same question. The generator
+ * is replaced by one which draws as a freshly seeded generator every time, so every prediction is the same
+ * as the first one of a freshly trained model, and predictions may run on several threads at once.
+ */
+public class RepeatableLabelPowerset extends LabelPowerset {
+
+    private static final int SEED = 1;
+
+    public RepeatableLabelPowerset(Classifier classifier) {
+        super(classifier);
+        Rand = new RestartedRandom();
+    }
+
+    /**
+     * draws every number as the first draw of the generator with the seed, and keeps no state between the draws
+     */
+    private static class RestartedRandom extends Random {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int nextInt(int bound) {
+            return new Random(SEED).nextInt(bound);
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import lombok.val;
+
+import java.util.Collection;
+
+/**
+ * Cleans the question content in a single pass over its characters: words are separated by spaces,
+ * lowercased, stripped of everything but the latin letters and dropped if they are stop words.
+ * No regular expressions or intermediate arrays are involved, the only allocations are the builders.
+ */
+class TextNormalizer {
+
+    /**
+     * stop words grouped by their length, every group is sorted to be binary searched
+     */
+    private final char[][][] stopWordsByLength;
+
+    /**
+     * @param stopWords no meaningful words which can be deleted without the loss of meaning
+     */
+    TextNormalizer(Collection<String> stopWords) {
+        val maxLength = stopWords.stream().mapToInt(String::length).max().orElse(0);
+        stopWordsByLength = new char[maxLength + 1][][];
+        for (int length = 0; length <= maxLength; length++) {
+            val wordLength = length;
+            stopWordsByLength[length] = stopWords.stream()
+                                                 .filter(word -> word.length() == wordLength)
+                                                 .distinct()
+                                                 .sorted()
+                                                 .map(String::toCharArray)
+                                                 .toArray(char[][]::new);
+        }
+    }
+
+    /**
+     * @param content the value of the question content
+     * @return string with meaningful words only which consist only of small letters
+     */
+    String normalize(String content) {
+        val cleaned = new StringBuilder(content.length());
+        val word = new StringBuilder();
+        for (int i = 0; i <= content.length(); i++) {
+            if (i == content.length() || content.charAt(i) == ' ') {
+                appendUnlessStopWord(cleaned, word);
+                word.setLength(0);
+                continue;
+            }
+            val letter = Character.toLowerCase(content.charAt(i));
+            if (letter >= 'a' && letter <= 'z') {
+                word.append(letter);
+            }
+        }
+        return cleaned.toString();
+    }
+
+    private void appendUnlessStopWord(StringBuilder cleaned, StringBuilder word) {
+        if (word.length() == 0 || isStopWord(word)) {
+            return;
+        }
+        if (cleaned.length() > 0) {
+            cleaned.append(' ');
+        }
+        cleaned.append(word);
+    }
+
+    boolean isStopWord(CharSequence word) {
+        if (word.length() >= stopWordsByLength.length) {
+            return false;
+        }
+        val candidates = stopWordsByLength[word.length()];
+        int low = 0;
+        int high = candidates.length - 1;
+        while (low <= high) {
+            val middle = (low + high) >>> 1;
+            val comparison = compare(candidates[middle], word);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return comparison of the words of the same length
+     */
+    private static int compare(char[] stopWord, CharSequence word) {
+        for (int i = 0; i < stopWord.length; i++) {
+            if (stopWord[i] != word.charAt(i)) {
+                return stopWord[i] - word.charAt(i);
+            }
+        }
+        return 0;
+    }
+
+}
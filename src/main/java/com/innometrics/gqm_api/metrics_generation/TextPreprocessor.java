@@ -0,0 +1,248 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.exception.ServiceUnavailableException;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reduces the questions contents to the meaningful lemmas. The stop words and the lemmatizer chosen by
+ * metrics-generation.lemmatizer are loaded once in the background when the application starts,
+ * afterwards the lemmatizer is shared by all request threads.
+ */
+@Slf4j
+@Component
+public class TextPreprocessor {
+
+    private static final String STOP_WORDS_RESOURCE = "static/english_stopwords.txt";
+
+    private final CountDownLatch loadingFinished = new CountDownLatch(1);
+    private final FileGenerationConfiguration fileGenerationConfiguration;
+    private final LemmaMemo lemmaMemo;
+    private final ExecutorService preprocessingExecutor;
+
+    private volatile TextNormalizer textNormalizer;
+    private volatile Lemmatizer lemmatizer;
+    private volatile Throwable loadingFailure;
+
+    public TextPreprocessor(FileGenerationConfiguration fileGenerationConfiguration) {
+        this.fileGenerationConfiguration = fileGenerationConfiguration;
+        this.lemmaMemo = new LemmaMemo(fileGenerationConfiguration.getLemmaMemoSize());
+        val threadFactory = new CustomizableThreadFactory("nlp-preprocessing-");
+        threadFactory.setDaemon(true);
+        this.preprocessingExecutor = Executors.newFixedThreadPool(
+                fileGenerationConfiguration.getPreprocessingParallelism(),
+                threadFactory
+        );
+    }
+
+    @PostConstruct
+    public void startLoading() {
+        val loader = new Thread(this::load, "nlp-pipeline-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load() {
+        try {
+            textNormalizer = new TextNormalizer(loadStopWords());
+            getLemmaMemoFile().ifPresent(lemmaMemo::load);
+            lemmatizer = getLemmatizerType() == LemmatizerType.LIGHT
+                    ? new LightLemmatizer()
+                    : new CoreNlpLemmatizer();
+        } catch (Exception | Error e) {
+            loadingFailure = e;
+            log.error("Failed to load the NLP pipeline", e);
+        } finally {
+            loadingFinished.countDown();
+        }
+    }
+
+    /**
+     * @return true when the stop words and the StanfordCoreNLP models are loaded
+     */
+    public boolean isReady() {
+        return lemmatizer != null;
+    }
+
+    /**
+     * @return lemmatizer the contents are preprocessed with, the preprocessed contents of the different ones
+     * must not be mixed
+     */
+    public LemmatizerType getLemmatizerType() {
+        return fileGenerationConfiguration.getLemmatizer();
+    }
+
+    /**
+     * keeps the learned lemmas for the next start when the memo file is configured
+     */
+    @PreDestroy
+    public void shutdown() {
+        preprocessingExecutor.shutdownNow();
+        getLemmaMemoFile().ifPresent(lemmaMemo::save);
+    }
+
+    /**
+     * the memo is kept only in front of the CoreNLP pipeline, the light lemmatizer is cheaper than a lookup
+     */
+    private Optional<Path> getLemmaMemoFile() {
+        if (getLemmatizerType() == LemmatizerType.LIGHT) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(fileGenerationConfiguration.getLemmaMemoFile()).map(Paths::get);
+    }
+
+    /**
+     * @return number of texts lemmatized from the memo without running the pipeline
+     */
+    public long getLemmaMemoHits() {
+        return lemmaMemo.getHits();
+    }
+
+    /**
+     * @return number of texts which had to be lemmatized by the pipeline
+     */
+    public long getLemmaMemoMisses() {
+        return lemmaMemo.getMisses();
+    }
+
+    /**
+     * @return number of words in the lemma memo
+     */
+    public int getLemmaMemoSize() {
+        return lemmaMemo.size();
+    }
+
+    /**
+     * @return the reason why the models could not be loaded, null if they are loaded or still loading
+     */
+    public Throwable getLoadingFailure() {
+        return loadingFailure;
+    }
+
+    /**
+     * @param timeout maximum time to wait
+     * @param unit    time unit of the timeout
+     * @return true when the pipeline is ready
+     */
+    @SneakyThrows
+    public boolean awaitReady(long timeout, TimeUnit unit) {
+        loadingFinished.await(timeout, unit);
+        return isReady();
+    }
+
+    /**
+     * @param content the value of the question content
+     * @return preprocessed value of the question content
+     */
+    public String getPreprocessed(String content) {
+        checkReady();
+        return lemmatize(textNormalizer.normalize(content));
+    }
+
+    /**
+     * preprocesses the contents in parallel on metrics-generation.preprocessingParallelism threads,
+     * the shared pipeline keeps no state between annotations, so the result is the same as one by one
+     *
+     * @param contents the values of the questions contents
+     * @return key - question content, value - its preprocessed value
+     */
+    public Map<String, String> getPreprocessed(Collection<String> contents) {
+        checkReady();
+        val preprocessed = new LinkedHashMap<String, CompletableFuture<String>>();
+        for (val content : contents) {
+            preprocessed.computeIfAbsent(
+                    content,
+                    absent -> CompletableFuture.supplyAsync(() -> getPreprocessed(content), preprocessingExecutor)
+            );
+        }
+
+        val result = new LinkedHashMap<String, String>();
+        try {
+            for (val entry : preprocessed.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().join());
+            }
+        } catch (CompletionException e) {
+            preprocessed.values().forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return result;
+    }
+
+    private void checkReady() {
+        if (!isReady()) {
+            throw new ServiceUnavailableException(
+                    loadingFailure == null
+                            ? "Metrics generation is not ready yet, NLP models are loading"
+                            : "Metrics generation is not available, NLP models failed to load"
+            );
+        }
+    }
+
+    /**
+     * @return list of no meaningful words which can be deleted without the loss of meaning
+     */
+    @SneakyThrows
+    static List<String> loadStopWords() {
+        try (val reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(STOP_WORDS_RESOURCE).getInputStream(),
+                StandardCharsets.UTF_8
+        ))) {
+            return reader.lines()
+                         .map(String::trim)
+                         .filter(word -> !word.isEmpty())
+                         .collect(toList());
+        }
+    }
+
+    /**
+     * with the CoreNLP lemmatizer the texts known to the memo skip the pipeline,
+     * otherwise the whole text is lemmatized and the memo learns it and the lemmas of its words
+     *
+     * @param content cleaned question content, words separated by single spaces
+     * @return string with lemmatized words (reduced to standard form depending on the part of speech)
+     */
+    private String lemmatize(String content) {
+        val words = content.isEmpty() ? new String[0] : content.split(" ");
+        if (getLemmatizerType() == LemmatizerType.LIGHT) {
+            return joinLemmas(lemmatizer.lemmatize(content, words));
+        }
+
+        val memorized = lemmaMemo.lemmatize(content, words);
+        if (memorized != null) {
+            return memorized;
+        }
+        val wordLemmas = lemmatizer.lemmatize(content, words);
+        lemmaMemo.learn(content, words, wordLemmas);
+        return joinLemmas(wordLemmas);
+    }
+
+    /**
+     * @param wordLemmas lemmas of every word of the text
+     * @return the lemmas separated by spaces, without the words which have none
+     */
+    static String joinLemmas(List<String> wordLemmas) {
+        return wordLemmas.stream()
+                         .filter(lemma -> !lemma.isEmpty())
+                         .collect(joining(" "));
+    }
+
+}
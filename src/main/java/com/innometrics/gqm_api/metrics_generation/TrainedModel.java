@@ -0,0 +1,46 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import lombok.Builder;
+import lombok.Getter;
+import mulan.classifier.MultiLabelLearner;
+import mulan.data.LabelsMetaData;
+import weka.core.Instances;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Builder(toBuilder = true)
+public class TrainedModel {
+
+    /**
+     * classifier trained on the dataset
+     */
+    private final MultiLabelLearner classifier;
+
+    /**
+     * empty dataset with the attributes the classifier was trained on
+     */
+    private final Instances header;
+
+    /**
+     * key - id of the token in the vocabulary, value - its index in the header
+     */
+    private final Map<Integer, Integer> tokenIdToColumnIdMap;
+
+    /**
+     * labels of the dataset, one per metric
+     */
+    private final LabelsMetaData labelsMetaData;
+
+    /**
+     * list of distinct metrics names in the order of the labels
+     */
+    private final List<String> metricsNames;
+
+    /**
+     * System.currentTimeMillis() when the classifier was trained
+     */
+    private final long trainedAt;
+
+}
@@ -0,0 +1,182 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.Value;
+import lombok.val;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the most recently used trained models, so repeated generations on the same corpus only make predictions.
+ * The model trained on the whole corpus is also kept in the snapshot for the next start of the application.
+ * Once the background training publishes a model trained on the whole corpus, generations with the whole corpus
+ * predict with the latest published model and never train it themselves.
+ * A model is trained once per training set, the generations missing it at the same time wait for that training.
+ */
+@Component
+public class TrainedModelCache {
+
+    private final Map<TrainingSetKey, CompletableFuture<Optional<TrainedModel>>> models;
+    private final ModelSnapshotStore modelSnapshotStore;
+    private final GenerationMetrics generationMetrics;
+    private final AtomicReference<PublishedModel> publishedModel = new AtomicReference<>();
+
+    public TrainedModelCache(
+            FileGenerationConfiguration fileGenerationConfiguration,
+            ModelSnapshotStore modelSnapshotStore,
+            GenerationMetrics generationMetrics
+    ) {
+        this.modelSnapshotStore = modelSnapshotStore;
+        this.generationMetrics = generationMetrics;
+        val modelCacheSize = fileGenerationConfiguration.getModelCacheSize();
+        this.models = new LinkedHashMap<TrainingSetKey, CompletableFuture<Optional<TrainedModel>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<TrainingSetKey, CompletableFuture<Optional<TrainedModel>>> eldest
+            ) {
+                return size() > modelCacheSize;
+            }
+        };
+    }
+
+    /**
+     * @param trainingSetKey identifies the training set and the corpus version it was taken from
+     * @param trainer        trains the model when it is not cached yet
+     * @return model trained on the training set and whether it was trained by this call
+     */
+    public ModelLookup get(TrainingSetKey trainingSetKey, Supplier<Optional<TrainedModel>> trainer) {
+        val published = publishedModel.get();
+        if (published != null && trainingSetKey.isFullCorpus()) {
+            return new ModelLookup(published.getModel(), false);
+        }
+        return getCached(trainingSetKey, trainer);
+    }
+
+    /**
+     * replaces the model used by the generations with the whole corpus, the generations running at the moment
+     * keep the model they have started with
+     *
+     * @param corpusVersion current version of the corpus
+     * @param trainer       trains the model on the whole corpus when it is neither published, cached nor in the snapshot
+     */
+    public void publish(long corpusVersion, Supplier<Optional<TrainedModel>> trainer) {
+        val published = publishedModel.get();
+        if (published != null && published.getCorpusVersion() == corpusVersion) {
+            return;
+        }
+        val model = getCached(TrainingSetKey.fullCorpus(corpusVersion), trainer).getModel();
+        publishedModel.set(new PublishedModel(corpusVersion, model));
+        model.ifPresent(generationMetrics::modelPublished);
+    }
+
+    private ModelLookup getCached(TrainingSetKey trainingSetKey, Supplier<Optional<TrainedModel>> trainer) {
+        val future = new CompletableFuture<Optional<TrainedModel>>();
+        final CompletableFuture<Optional<TrainedModel>> cached;
+        synchronized (models) {
+            cached = models.get(trainingSetKey);
+            if (cached == null) {
+                put(trainingSetKey, future);
+            }
+        }
+        if (cached != null) {
+            return new ModelLookup(await(cached), false);
+        }
+
+        try {
+            val lookup = loadOrTrain(trainingSetKey, trainer);
+            future.complete(lookup.getModel());
+            return lookup;
+        } catch (RuntimeException | Error e) {
+            synchronized (models) {
+                models.remove(trainingSetKey, future);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Optional<TrainedModel> await(CompletableFuture<Optional<TrainedModel>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * puts the model of the snapshot to the cache, so even the first generation does not train it
+     *
+     * @param corpusVersion current version of the corpus
+     * @return true if the snapshot of this corpus version was loaded
+     */
+    public boolean warmUp(long corpusVersion) {
+        val model = modelSnapshotStore.load(corpusVersion);
+        model.ifPresent(snapshot -> {
+            synchronized (models) {
+                put(TrainingSetKey.fullCorpus(corpusVersion), CompletableFuture.completedFuture(model));
+            }
+            generationMetrics.modelPublished(snapshot);
+        });
+        return model.isPresent();
+    }
+
+    private ModelLookup loadOrTrain(
+            TrainingSetKey trainingSetKey,
+            Supplier<Optional<TrainedModel>> trainer
+    ) {
+        if (!trainingSetKey.isFullCorpus()) {
+            return new ModelLookup(trainer.get(), true);
+        }
+        val snapshot = modelSnapshotStore.load(trainingSetKey.getCorpusVersion());
+        if (snapshot.isPresent()) {
+            return new ModelLookup(snapshot, false);
+        }
+        val model = trainer.get();
+        model.ifPresent(trained -> modelSnapshotStore.save(trainingSetKey.getCorpusVersion(), trained));
+        return new ModelLookup(model, true);
+    }
+
+    /**
+     * must be called holding the lock of the models
+     */
+    private void put(TrainingSetKey trainingSetKey, CompletableFuture<Optional<TrainedModel>> model) {
+        models.keySet().removeIf(key -> key.getCorpusVersion() < trainingSetKey.getCorpusVersion());
+        models.put(trainingSetKey, model);
+    }
+
+    @Value
+    public static class ModelLookup {
+
+        /**
+         * empty if the training set is not enough to train a model
+         */
+        Optional<TrainedModel> model;
+
+        /**
+         * true if the model was trained by the lookup, false if it was cached, published, loaded from the snapshot
+         * or trained by a concurrent lookup of the same training set
+         */
+        boolean trained;
+
+    }
+
+    @Value
+    private static class PublishedModel {
+
+        long corpusVersion;
+
+        Optional<TrainedModel> model;
+
+    }
+
+}
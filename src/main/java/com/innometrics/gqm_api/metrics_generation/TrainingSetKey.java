@@ -0,0 +1,46 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import lombok.Value;
+
+import java.util.Set;
+
+@Value
+public class TrainingSetKey {
+
+    /**
+     * version of the corpus at the moment the training set was loaded
+     */
+    long corpusVersion;
+
+    /**
+     * id of the question which is left out of the training set, null if the whole corpus is used
+     */
+    Long excludedQuestionId;
+
+    /**
+     * ids of the questions of the training set, null if all questions but the excluded one are used
+     */
+    Set<Long> questionIds;
+
+    public static TrainingSetKey excluding(Long questionId, long corpusVersion) {
+        return new TrainingSetKey(corpusVersion, questionId, null);
+    }
+
+    public static TrainingSetKey fullCorpus(long corpusVersion) {
+        return new TrainingSetKey(corpusVersion, null, null);
+    }
+
+    /**
+     * @param questionId    id of the question the metrics are generated for, which is left out of the training set
+     * @param neighbourIds  ids of the questions close to it, which make the training set
+     * @param corpusVersion version of the corpus
+     */
+    public static TrainingSetKey neighbourhood(Long questionId, Set<Long> neighbourIds, long corpusVersion) {
+        return new TrainingSetKey(corpusVersion, questionId, neighbourIds);
+    }
+
+    public boolean isFullCorpus() {
+        return excludedQuestionId == null && questionIds == null;
+    }
+
+}
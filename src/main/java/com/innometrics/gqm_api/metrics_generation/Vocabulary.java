@@ -0,0 +1,165 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.model.Token;
+import com.innometrics.gqm_api.service.TokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.innometrics.gqm_api.model.Token.Kind.LEMMA;
+import static com.innometrics.gqm_api.model.Token.Kind.METRIC;
+
+/**
+ * Dictionary of all lemmas and metric names met so far with their stable integer ids,
+ * held in memory and backed by the token table. New tokens are added incrementally
+ * when questions and metrics are written or first met in the training set.
+ */
+@Component
+@RequiredArgsConstructor
+public class Vocabulary {
+
+    private final TokenService tokenService;
+
+    private final Map<Token.Kind, Map<String, Integer>> ids = new EnumMap<>(Token.Kind.class);
+
+    @PostConstruct
+    public void load() {
+        for (val kind : Token.Kind.values()) {
+            ids.put(kind, new ConcurrentHashMap<>());
+        }
+        for (val token : tokenService.getAll()) {
+            ids.get(token.getKind()).put(token.getName(), Math.toIntExact(token.getId()));
+        }
+    }
+
+    /**
+     * @param lemma lemma of the question content
+     * @return id of the lemma, which is added to the vocabulary if it was not there yet
+     */
+    public int getLemmaId(String lemma) {
+        return getId(LEMMA, lemma);
+    }
+
+    /**
+     * @param metricName name of the metric
+     * @return id of the metric, which is added to the vocabulary if it was not there yet
+     */
+    public int getMetricId(String metricName) {
+        return getId(METRIC, metricName);
+    }
+
+    /**
+     * @param lemma lemma of the question content
+     * @return id of the lemma or null if it is not in the vocabulary
+     */
+    public Integer findLemmaId(String lemma) {
+        return ids.get(LEMMA).get(lemma);
+    }
+
+    /**
+     * @param kind kind of the tokens
+     * @return number of the tokens of this kind in the vocabulary
+     */
+    public int size(Token.Kind kind) {
+        val kindIds = ids.get(kind);
+        return kindIds == null ? 0 : kindIds.size();
+    }
+
+    /**
+     * @param metricName name of the metric, which is added to the vocabulary if it was not there yet
+     */
+    public void addMetric(String metricName) {
+        if (metricName != null) {
+            getMetricId(metricName);
+        }
+    }
+
+    /**
+     * adds the lemmas of the question content to the vocabulary, the content of stop words only has no lemmas
+     *
+     * @param preprocessedContent preprocessed question content, null if it could not be preprocessed yet,
+     *                            then the lemmas are added when the question is first met in the training set
+     */
+    public void addLemmas(String preprocessedContent) {
+        if (preprocessedContent == null) {
+            return;
+        }
+        addAll(LEMMA, Arrays.stream(preprocessedContent.split(" "))
+                            .filter(lemma -> !lemma.isEmpty())
+                            .collect(Collectors.toList()));
+    }
+
+    /**
+     * @param lemmas       list of distinct lemmas, the first attributes of the dataset
+     * @param metricsNames list of distinct metrics names, the attributes after the lemmas
+     * @return key - id of the token in the vocabulary, value - its index in the attributes of the dataset
+     */
+    public Map<Integer, Integer> getTokenIdToColumnIdMap(List<String> lemmas, List<String> metricsNames) {
+        addAll(LEMMA, lemmas);
+        addAll(METRIC, metricsNames);
+        val tokenIdToColumnIdMap = new HashMap<Integer, Integer>();
+        for (val lemma : lemmas) {
+            tokenIdToColumnIdMap.put(getLemmaId(lemma), tokenIdToColumnIdMap.size());
+        }
+        for (val metricName : metricsNames) {
+            tokenIdToColumnIdMap.put(getMetricId(metricName), tokenIdToColumnIdMap.size());
+        }
+        return tokenIdToColumnIdMap;
+    }
+
+    private int getId(Token.Kind kind, String name) {
+        val id = ids.get(kind).get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            return ids.get(kind).computeIfAbsent(name, absent -> Math.toIntExact(createToken(kind, name).getId()));
+        }
+    }
+
+    /**
+     * the tokens which are not in the vocabulary yet are created at once, so a training set with many new lemmas
+     * does not write them one by one
+     *
+     * @param kind  kind of the tokens
+     * @param names names of the tokens
+     */
+    private void addAll(Token.Kind kind, Collection<String> names) {
+        val kindIds = ids.get(kind);
+        if (kindIds.keySet().containsAll(names)) {
+            return;
+        }
+        synchronized (this) {
+            val missing = names.stream()
+                               .filter(name -> !kindIds.containsKey(name))
+                               .collect(Collectors.toCollection(LinkedHashSet::new));
+            if (missing.isEmpty()) {
+                return;
+            }
+            try {
+                for (val token : tokenService.createAll(kind, missing)) {
+                    kindIds.put(token.getName(), Math.toIntExact(token.getId()));
+                }
+            } catch (DataIntegrityViolationException e) {
+                // some of them were created by another instance of the application
+                missing.forEach(name -> getId(kind, name));
+            }
+        }
+    }
+
+    private Token createToken(Token.Kind kind, String name) {
+        try {
+            return tokenService.create(kind, name);
+        } catch (DataIntegrityViolationException e) {
+            // created by another instance of the application
+            return tokenService.find(kind, name).orElseThrow(() -> e);
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.innometrics.gqm_api.model;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorpusVersion {
+
+    public static final Long CORPUS_VERSION_ID = 1L;
+
+    @Id
+    private Long id;
+
+    private Long version;
+
+}
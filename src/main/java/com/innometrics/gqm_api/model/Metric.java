@@ -1,6 +1,7 @@
 package com.innometrics.gqm_api.model;
 
 import com.innometrics.gqm_api.dto.MetricBaseDto;
+import com.innometrics.gqm_api.metrics_generation.MetricCatalog;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.*;
 
@@ -16,6 +17,7 @@ import static javax.persistence.GenerationType.SEQUENCE;
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(MetricCatalog.Listener.class)
 public class Metric {
 
     public static final String GENERATOR = "MetricGenerator";
@@ -2,6 +2,7 @@ package com.innometrics.gqm_api.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.innometrics.gqm_api.dto.QuestionBaseDto;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
 import lombok.*;
 
 import javax.persistence.*;
@@ -31,6 +32,18 @@ public class Question {
 
     private String content;
 
+    /**
+     * lemmas of the meaningful words of the content, null until the content is preprocessed
+     */
+    @Column(length = 1024)
+    private String preprocessedContent;
+
+    /**
+     * lemmatizer the content was preprocessed with, the content is preprocessed again when it is changed
+     */
+    @Enumerated(EnumType.STRING)
+    private LemmatizerType preprocessedBy;
+
     @ManyToOne
     @JsonBackReference
     private Goal goal;
@@ -0,0 +1,43 @@
+package com.innometrics.gqm_api.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+import static javax.persistence.GenerationType.SEQUENCE;
+
+/**
+ * lemma of the questions contents or metric name with the stable id it has as a feature of the dataset
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"kind", "name"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class Token {
+
+    public static final String GENERATOR = "TokenGenerator";
+
+    public enum Kind {
+        LEMMA, METRIC
+    }
+
+    @Id
+    @GeneratedValue(strategy = SEQUENCE, generator = GENERATOR)
+    @SequenceGenerator(
+            name = GENERATOR,
+            sequenceName = "token_id_seq",
+            allocationSize = 1
+    )
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false)
+    private Kind kind;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+}
@@ -0,0 +1,14 @@
+package com.innometrics.gqm_api.repositories;
+
+import com.innometrics.gqm_api.model.CorpusVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CorpusVersionRepository extends JpaRepository<CorpusVersion, Long> {
+
+    @Modifying
+    @Query("update CorpusVersion v set v.version = v.version + 1")
+    int increment();
+
+}
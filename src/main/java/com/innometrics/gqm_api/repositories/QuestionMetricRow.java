@@ -0,0 +1,22 @@
+package com.innometrics.gqm_api.repositories;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
+
+/**
+ * one question joined with one of its metrics, a question without metrics has one row with empty metric
+ */
+public interface QuestionMetricRow {
+
+    Long getQuestionId();
+
+    String getContent();
+
+    String getPreprocessedContent();
+
+    LemmatizerType getPreprocessedBy();
+
+    Long getMetricId();
+
+    String getMetricName();
+
+}
@@ -1,12 +1,61 @@
 package com.innometrics.gqm_api.repositories;
 
 import com.innometrics.gqm_api.model.Question;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Set;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
 
-    Set<Question> findAllByIdIsNot(Long id);
+    String SELECT_METRIC_ROWS = "select q.id as questionId, q.content as content, " +
+            "q.preprocessedContent as preprocessedContent, q.preprocessedBy as preprocessedBy, " +
+            "m.id as metricId, m.name as metricName from Question q left join q.metrics m ";
+
+    String ORDER_METRIC_ROWS = " order by q.id, m.id";
+
+    /**
+     * the rows are read through a forward-only cursor in the batches of the fetch size,
+     * so the stream should be consumed within a transaction and closed
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(SELECT_METRIC_ROWS + ORDER_METRIC_ROWS)
+    Stream<QuestionMetricRow> streamAllMetricRows();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(SELECT_METRIC_ROWS + "where q.id in :ids" + ORDER_METRIC_ROWS)
+    Stream<QuestionMetricRow> streamMetricRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @param id        id of the question which is left out
+     * @param metricIds ids of the metrics
+     * @return number of the given metrics which are assigned to at least one other question
+     */
+    @Query("select count(distinct m.id) from Question q join q.metrics m where q.id <> :id and m.id in :metricIds")
+    long countMetricsOfOtherQuestions(@Param("id") Long id, @Param("metricIds") Collection<Long> metricIds);
+
+    @Query("select q from Question q where q.content is not null " +
+            "and (q.preprocessedContent is null or q.preprocessedBy is null or q.preprocessedBy <> :lemmatizer)")
+    List<Question> findAllNotPreprocessedBy(@Param("lemmatizer") LemmatizerType lemmatizer, Pageable pageable);
+
+    @Modifying
+    @Query("update Question q set q.preprocessedContent = :preprocessedContent, q.preprocessedBy = :lemmatizer " +
+            "where q.id = :id")
+    int updatePreprocessedContent(
+            @Param("id") Long id,
+            @Param("preprocessedContent") String preprocessedContent,
+            @Param("lemmatizer") LemmatizerType lemmatizer
+    );
 
 }
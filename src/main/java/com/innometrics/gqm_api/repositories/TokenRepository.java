@@ -0,0 +1,12 @@
+package com.innometrics.gqm_api.repositories;
+
+import com.innometrics.gqm_api.model.Token;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface TokenRepository extends JpaRepository<Token, Long> {
+
+    Optional<Token> findByKindAndName(Token.Kind kind, String name);
+
+}
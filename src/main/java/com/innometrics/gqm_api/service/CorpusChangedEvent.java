@@ -0,0 +1,7 @@
+package com.innometrics.gqm_api.service;
+
+/**
+ * Published when the questions or metrics the metrics generation is trained on have changed
+ */
+public class CorpusChangedEvent {
+}
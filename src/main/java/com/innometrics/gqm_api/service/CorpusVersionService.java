@@ -0,0 +1,54 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.model.CorpusVersion;
+import com.innometrics.gqm_api.repositories.CorpusVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+
+import static com.innometrics.gqm_api.model.CorpusVersion.CORPUS_VERSION_ID;
+
+/**
+ * Version of the questions and metrics the metrics generation is trained on,
+ * every write which changes them increments it
+ */
+@Service
+@RequiredArgsConstructor
+public class CorpusVersionService {
+
+    private final CorpusVersionRepository corpusVersionRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIfAbsent() {
+        if (corpusVersionRepository.existsById(CORPUS_VERSION_ID)) {
+            return;
+        }
+        try {
+            corpusVersionRepository.save(new CorpusVersion(CORPUS_VERSION_ID, 0L));
+        } catch (DataIntegrityViolationException e) {
+            // created by another instance of the application
+        }
+    }
+
+    public long getCurrent() {
+        return corpusVersionRepository.findById(CORPUS_VERSION_ID)
+                                      .map(CorpusVersion::getVersion)
+                                      .orElse(0L);
+    }
+
+    /**
+     * joins the transaction of the write, so the corpus and its version are committed together
+     */
+    @Transactional
+    public void increment() {
+        corpusVersionRepository.increment();
+        applicationEventPublisher.publishEvent(new CorpusChangedEvent());
+    }
+
+}
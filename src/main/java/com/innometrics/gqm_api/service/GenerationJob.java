@@ -0,0 +1,54 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.dto.QuestionUpdateMetricsRequest;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * metrics generation for one question, which runs in the background and is polled by the client
+ */
+@Getter
+@RequiredArgsConstructor
+public class GenerationJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final UUID id = UUID.randomUUID();
+
+    private final Long questionId;
+
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile QuestionUpdateMetricsRequest result;
+
+    private volatile String error;
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void complete(QuestionUpdateMetricsRequest result) {
+        this.result = result;
+        finishedAt = LocalDateTime.now();
+        status = Status.DONE;
+    }
+
+    void fail(Exception exception) {
+        error = exception.getMessage();
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+}
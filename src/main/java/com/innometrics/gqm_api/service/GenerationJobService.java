@@ -0,0 +1,91 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.dto.GenerationJobResponse;
+import com.innometrics.gqm_api.exception.NotFoundException;
+import com.innometrics.gqm_api.exception.TooManyRequestsException;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * runs metrics generation on its own bounded pool instead of the request threads,
+ * when the queue is full new jobs are rejected rather than piling up
+ */
+@Slf4j
+@Service
+public class GenerationJobService {
+
+    private final QuestionService questionService;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, GenerationJob> jobs;
+
+    public GenerationJobService(
+            QuestionService questionService,
+            FileGenerationConfiguration fileGenerationConfiguration
+    ) {
+        this.questionService = questionService;
+        this.executor = new ThreadPoolExecutor(
+                fileGenerationConfiguration.getJobThreads(),
+                fileGenerationConfiguration.getJobThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(fileGenerationConfiguration.getJobQueueCapacity()),
+                new CustomizableThreadFactory("metrics-generation-")
+        );
+        val jobHistorySize = fileGenerationConfiguration.getJobHistorySize();
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<UUID, GenerationJob>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, GenerationJob> eldest) {
+                return size() > jobHistorySize;
+            }
+        });
+    }
+
+    public GenerationJobResponse submit(Long questionId) {
+        questionService.getQuestionById(
+                questionId,
+                new NotFoundException("Question with id  " + questionId + "not found")
+        );
+        val job = new GenerationJob(questionId);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new TooManyRequestsException("Metrics generation queue is full, try again later");
+        }
+        return GenerationJobResponse.buildFrom(job);
+    }
+
+    public GenerationJobResponse getDtoById(UUID jobId) {
+        val job = Optional.ofNullable(jobs.get(jobId)).orElseThrow(
+                () -> new NotFoundException("Generation job with id " + jobId + " not found")
+        );
+        return GenerationJobResponse.buildFrom(job);
+    }
+
+    private void run(GenerationJob job) {
+        job.start();
+        try {
+            job.complete(questionService.generateMetrics(job.getQuestionId()));
+        } catch (Exception e) {
+            log.warn("Metrics generation for question {} failed", job.getQuestionId(), e);
+            job.fail(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -2,9 +2,11 @@ package com.innometrics.gqm_api.service;
 
 import com.innometrics.gqm_api.dto.GoalBaseDto;
 import com.innometrics.gqm_api.dto.GoalRetrieveResponse;
+import com.innometrics.gqm_api.dto.QuestionMetricsResponse;
 import com.innometrics.gqm_api.dto.QuestionsForGoalDto;
 import com.innometrics.gqm_api.exception.ForbiddenException;
 import com.innometrics.gqm_api.exception.NotFoundException;
+import com.innometrics.gqm_api.metrics_generation.LemmaIndex;
 import com.innometrics.gqm_api.model.Goal;
 import com.innometrics.gqm_api.repositories.GoalRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,9 @@ import java.util.stream.Collectors;
 public class GoalService {
 
     private final GoalRepository goalRepository;
+    private final CorpusVersionService corpusVersionService;
+    private final QuestionService questionService;
+    private final LemmaIndex lemmaIndex;
 
     @Transactional
     public Goal save(Goal goal) {
@@ -57,6 +62,13 @@ public class GoalService {
         );
     }
 
+    @Transactional
+    public List<QuestionMetricsResponse> generateMetricsForQuestions(Long goalId) {
+        return questionService.generateMetrics(
+                getGoalById(goalId, new NotFoundException("Goal not found by id " + goalId)).getQuestions()
+        );
+    }
+
     public GoalBaseDto createDtoFrom(GoalBaseDto goal) {
         val resultGoal = Goal.buildFrom(goal);
         return GoalBaseDto.buildFrom(save(resultGoal));
@@ -74,9 +86,12 @@ public class GoalService {
         updatable.setUserEmail(updater.getUserEmail());
     }
 
+    @Transactional
     public void deleteById(Long goalId) {
-        getGoalById(goalId, new ForbiddenException("Goal with id  " + goalId + "does not exist"));
+        val deletable = getGoalById(goalId, new ForbiddenException("Goal with id  " + goalId + "does not exist"));
+        deletable.getQuestions().forEach(question -> lemmaIndex.remove(question.getId()));
         goalRepository.deleteById(goalId);
+        corpusVersionService.increment();
     }
 
 }
@@ -4,6 +4,7 @@ import com.innometrics.gqm_api.dto.MetricBaseDto;
 import com.innometrics.gqm_api.dto.MetricRetrieveResponse;
 import com.innometrics.gqm_api.exception.ForbiddenException;
 import com.innometrics.gqm_api.exception.NotFoundException;
+import com.innometrics.gqm_api.metrics_generation.Vocabulary;
 import com.innometrics.gqm_api.model.Metric;
 import com.innometrics.gqm_api.repositories.MetricRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,8 @@ import java.util.stream.Collectors;
 public class MetricService {
 
     private final MetricRepository metricRepository;
+    private final CorpusVersionService corpusVersionService;
+    private final Vocabulary vocabulary;
 
     public Metric save(Metric metric) {
         return metricRepository.save(metric);
@@ -50,14 +53,19 @@ public class MetricService {
 
     public MetricBaseDto createDtoFrom(MetricBaseDto metric) {
         val resultMetric = Metric.buildFrom(metric);
-        return MetricBaseDto.buildFrom(save(resultMetric));
+        val saved = save(resultMetric);
+        vocabulary.addMetric(saved.getName());
+        return MetricBaseDto.buildFrom(saved);
     }
 
     @Transactional
     public MetricBaseDto updateBy(Long metricId, MetricBaseDto metricBaseDto) {
         val updatable = getMetricById(metricId, new NotFoundException("Metric not found by id " + metricId));
         updateFields(updatable, Metric.buildFrom(metricBaseDto));
-        return MetricBaseDto.buildFrom(save(updatable));
+        val saved = save(updatable);
+        vocabulary.addMetric(saved.getName());
+        corpusVersionService.increment();
+        return MetricBaseDto.buildFrom(saved);
     }
 
     private void updateFields(Metric updatable, Metric updater) {
@@ -65,9 +73,11 @@ public class MetricService {
         updatable.setDescription(updater.getDescription());
     }
 
+    @Transactional
     public void deleteById(Long metricId) {
         getMetricById(metricId, new ForbiddenException("Metric with id  " + metricId + "does not exist"));
         metricRepository.deleteById(metricId);
+        corpusVersionService.increment();
     }
 
     public List<Metric> getAllByIds(List<Long> metricIds) {
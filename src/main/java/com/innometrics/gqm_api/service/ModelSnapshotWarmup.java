@@ -0,0 +1,46 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.metrics_generation.TrainedModelCache;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the snapshot of the model shared by the questions without metrics in the background when the application
+ * starts, so the first generations after a restart or a deploy do not wait for the training.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ModelSnapshotWarmup {
+
+    private final TrainedModelCache trainedModelCache;
+    private final CorpusVersionService corpusVersionService;
+    private final FileGenerationConfiguration fileGenerationConfiguration;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!fileGenerationConfiguration.isSharedModel() || fileGenerationConfiguration.getModelSnapshotFile() == null) {
+            return;
+        }
+        val loader = new Thread(this::run, "model-snapshot-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void run() {
+        try {
+            val corpusVersion = corpusVersionService.getCurrent();
+            if (trainedModelCache.warmUp(corpusVersion)) {
+                log.info("Loaded the model snapshot of the corpus version {}", corpusVersion);
+            }
+        } catch (Exception e) {
+            log.error("Model snapshot loading failed", e);
+        }
+    }
+
+}
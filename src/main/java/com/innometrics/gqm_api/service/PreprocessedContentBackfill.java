@@ -0,0 +1,52 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-off job which preprocesses the contents of the questions written before they were stored preprocessed,
+ * while NLP models were loading or with another lemmatizer. It runs in the background once the models are loaded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PreprocessedContentBackfill {
+
+    private final QuestionService questionService;
+    private final TextPreprocessor textPreprocessor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        val backfill = new Thread(this::run, "preprocessed-content-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    private void run() {
+        if (!textPreprocessor.awaitReady(1, TimeUnit.HOURS)) {
+            log.warn("Preprocessed content backfill is skipped, NLP models are not loaded");
+            return;
+        }
+        try {
+            int preprocessed = 0;
+            int batch;
+            do {
+                batch = questionService.backfillPreprocessedContents();
+                preprocessed += batch;
+            } while (batch > 0);
+            if (preprocessed > 0) {
+                log.info("Stored the preprocessed content of {} questions", preprocessed);
+            }
+        } catch (Exception e) {
+            log.error("Preprocessed content backfill failed", e);
+        }
+    }
+
+}
@@ -3,19 +3,36 @@ package com.innometrics.gqm_api.service;
 import com.innometrics.gqm_api.dto.*;
 import com.innometrics.gqm_api.exception.ForbiddenException;
 import com.innometrics.gqm_api.exception.NotFoundException;
+import com.innometrics.gqm_api.metrics_generation.GenerationMetrics;
+import com.innometrics.gqm_api.metrics_generation.LemmaIndex;
+import com.innometrics.gqm_api.metrics_generation.MetricCatalog;
+import com.innometrics.gqm_api.metrics_generation.MetricRecommendation;
 import com.innometrics.gqm_api.metrics_generation.MetricsGenerator;
+import com.innometrics.gqm_api.metrics_generation.RecommendationLimits;
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
+import com.innometrics.gqm_api.metrics_generation.TrainingSetKey;
+import com.innometrics.gqm_api.metrics_generation.Vocabulary;
+import com.innometrics.gqm_api.model.Metric;
 import com.innometrics.gqm_api.model.Question;
 import com.innometrics.gqm_api.repositories.GoalRepository;
 import com.innometrics.gqm_api.repositories.QuestionRepository;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.transaction.Transactional;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+
 @Service
 @RequiredArgsConstructor
 public class QuestionService {
@@ -24,6 +41,14 @@ public class QuestionService {
     private final GoalRepository goalRepository;
     private final QuestionRepository questionRepository;
     private final MetricsGenerator metricsGenerator;
+    private final MetricCatalog metricCatalog;
+    private final CorpusVersionService corpusVersionService;
+    private final FileGenerationConfiguration fileGenerationConfiguration;
+    private final Vocabulary vocabulary;
+    private final TextPreprocessor textPreprocessor;
+    private final LemmaIndex lemmaIndex;
+    private final GenerationMetrics generationMetrics;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public Question save(Question question) {
@@ -62,9 +87,15 @@ public class QuestionService {
         val resultQuestion = Question.buildFrom(questionCreateUpdateRequest);
         goalRepository.findById(questionCreateUpdateRequest.getGoalId())
                       .ifPresent(resultQuestion::setGoal);
-        return QuestionCreateUpdateRequest.buildFrom(save(resultQuestion));
+        preprocessContent(resultQuestion);
+        val saved = save(resultQuestion);
+        vocabulary.addLemmas(saved.getPreprocessedContent());
+        lemmaIndex.index(saved.getId(), saved.getPreprocessedContent(), getMetricsIds(saved));
+        corpusVersionService.increment();
+        return QuestionCreateUpdateRequest.buildFrom(saved);
     }
 
+    @Transactional
     public QuestionCreateUpdateRequest updateBy(
             Long questionId,
             QuestionCreateUpdateRequest questionCreateUpdateRequest) {
@@ -73,36 +104,253 @@ public class QuestionService {
                 new ForbiddenException("Question with id  " + questionId + "does not exist")
         );
         updateFields(updatable, Question.buildFrom(questionCreateUpdateRequest));
-        return QuestionCreateUpdateRequest.buildFrom(save(updatable));
+        preprocessContent(updatable);
+        val saved = save(updatable);
+        vocabulary.addLemmas(saved.getPreprocessedContent());
+        lemmaIndex.index(saved.getId(), saved.getPreprocessedContent(), getMetricsIds(saved));
+        corpusVersionService.increment();
+        return QuestionCreateUpdateRequest.buildFrom(saved);
     }
 
     private void updateFields(Question updatable, Question updater) {
         updatable.setContent(updater.getContent());
     }
 
+    /**
+     * the content is preprocessed when it is written, so the generation does not run NLP on the whole corpus,
+     * while NLP models are loading it is left empty and preprocessed by the generation or the backfill
+     */
+    private void preprocessContent(Question question) {
+        if (question.getContent() != null && textPreprocessor.isReady()) {
+            question.setPreprocessedContent(textPreprocessor.getPreprocessed(question.getContent()));
+            question.setPreprocessedBy(textPreprocessor.getLemmatizerType());
+        } else {
+            question.setPreprocessedContent(null);
+            question.setPreprocessedBy(null);
+        }
+    }
+
+    /**
+     * stores the preprocessed content of the next batch of questions which do not have it yet
+     * or have it preprocessed by another lemmatizer
+     *
+     * @return number of the preprocessed questions, 0 when there are no more left
+     */
+    @Transactional
+    public int backfillPreprocessedContents() {
+        val lemmatizer = textPreprocessor.getLemmatizerType();
+        val questions = questionRepository.findAllNotPreprocessedBy(lemmatizer, PageRequest.of(0, 100));
+        for (val question : questions) {
+            val preprocessedContent = textPreprocessor.getPreprocessed(question.getContent());
+            questionRepository.updatePreprocessedContent(question.getId(), preprocessedContent, lemmatizer);
+            vocabulary.addLemmas(preprocessedContent);
+            lemmaIndex.index(question.getId(), preprocessedContent, getMetricsIds(question));
+        }
+        return questions.size();
+    }
+
+    @Transactional
     public QuestionUpdateMetricsRequest generateMetrics(Long questionId) {
         val updatable = getQuestionById(
                 questionId,
                 new NotFoundException("Question with id  " + questionId + "not found")
         );
-        val metricsIds = metricsGenerator.generateMetrics(
-                getQuestionById(
-                        questionId,
-                        new ForbiddenException("Question with id  " + questionId + "not found")
-                ).getContent(),
-                getAllQuestionsExceptGiven(questionId)
+        val recommendations = recommendMetrics(updatable, RecommendationLimits.NONE);
+        if (updateGeneratedMetrics(updatable, getChosenIds(recommendations))) {
+            corpusVersionService.increment();
+        }
+        return QuestionUpdateMetricsRequest.buildFrom(updatable);
+    }
+
+    /**
+     * generates metrics to the question, the metrics within the limits are assigned to it,
+     * without limits the metrics chosen by the classifier are assigned
+     *
+     * @param questionId id of the question
+     * @param limits     which of the ranked metrics are recommended and assigned
+     * @return assigned metrics and the recommended metrics with their confidences
+     */
+    @Transactional
+    public QuestionGeneratedMetricsResponse generateMetrics(Long questionId, RecommendationLimits limits) {
+        val updatable = getQuestionById(
+                questionId,
+                new NotFoundException("Question with id  " + questionId + "not found")
         );
-        val newMetrics = metricService.getAllByIds(metricsIds);
-        updatable.setMetrics(new HashSet<>(newMetrics));
-        return QuestionUpdateMetricsRequest.buildFrom(save(updatable));
+        val recommendations = recommendMetrics(updatable, limits);
+        val assignedIds = limits.isUnlimited() ? getChosenIds(recommendations) : getIds(recommendations);
+        if (updateGeneratedMetrics(updatable, assignedIds)) {
+            corpusVersionService.increment();
+        }
+        return QuestionGeneratedMetricsResponse.buildFrom(updatable, recommendations);
+    }
+
+    private List<MetricRecommendation> recommendMetrics(Question question, RecommendationLimits limits) {
+        val trainingSetKey = getTrainingSetKey(question, corpusVersionService.getCurrent());
+        return metricsGenerator.recommendMetrics(
+                question.getContent(),
+                trainingSetKey,
+                () -> getQuestionsForGeneration(singletonList(trainingSetKey)),
+                limits
+        );
+    }
+
+    private List<Long> getIds(List<MetricRecommendation> recommendations) {
+        return recommendations.stream()
+                .map(MetricRecommendation::getMetricId)
+                .collect(Collectors.toList());
     }
 
-    public List<QuestionGenerateMetricsRequest> getAllQuestionsExceptGiven(Long questionId) {
-        return questionRepository.findAllByIdIsNot(questionId).stream()
-                .map(QuestionGenerateMetricsRequest::buildFrom)
+    private List<Long> getChosenIds(List<MetricRecommendation> recommendations) {
+        return recommendations.stream()
+                .filter(MetricRecommendation::isChosen)
+                .map(MetricRecommendation::getMetricId)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * generates metrics for all given questions with the corpus loaded once and saves them in one transaction,
+     * the corpus version is incremented once for all of them
+     */
+    @Transactional
+    public List<QuestionMetricsResponse> generateMetrics(Collection<Question> questions) {
+        val corpusVersion = corpusVersionService.getCurrent();
+        val trainingSetKeys = questions.stream()
+                .collect(Collectors.toMap(Question::getId, question -> getTrainingSetKey(question, corpusVersion)));
+        val metricsIds = metricsGenerator.generateMetrics(
+                questions.stream()
+                        .map(QuestionGenerateMetricsRequest::buildFrom)
+                        .collect(Collectors.toList()),
+                question -> trainingSetKeys.get(question.getId()),
+                () -> getQuestionsForGeneration(trainingSetKeys.values())
+        );
+        boolean labelsChanged = false;
+        for (val question : questions) {
+            labelsChanged |= updateGeneratedMetrics(question, metricsIds.get(question.getId()));
+        }
+        if (labelsChanged) {
+            corpusVersionService.increment();
+        }
+        return questions.stream()
+                .map(QuestionMetricsResponse::buildFrom)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * trains the model shared by the questions without metrics on the current corpus and publishes it,
+     * so their generations only make predictions, the corpus is loaded in a transaction of its own,
+     * which ends before the training starts
+     */
+    public void trainSharedModel() {
+        metricsGenerator.trainSharedModel(
+                corpusVersionService.getCurrent(),
+                () -> transactionTemplate.execute(status -> getAllQuestionsForGeneration())
+        );
+    }
+
+    /**
+     * the question's own metrics must not be in the training set, so the model trained once on the whole
+     * corpus can be shared only by the questions which do not have metrics yet, others are left out of it.
+     * When the neighbourhood size is set, the model is trained on the questions with metrics closest to the question,
+     * unless they have too few metrics to train a model on.
+     */
+    private TrainingSetKey getTrainingSetKey(Question question, long corpusVersion) {
+        val neighbourhoodSize = fileGenerationConfiguration.getNeighbourhoodSize();
+        if (neighbourhoodSize > 0) {
+            val neighbourIds = lemmaIndex.findNeighbours(
+                    getPreprocessedContent(question),
+                    neighbourhoodSize,
+                    question.getId()
+            );
+            if (lemmaIndex.countMetrics(neighbourIds) >= MetricsGenerator.MIN_METRICS_FOR_MULAN_LIBRARY_TO_WORK) {
+                return TrainingSetKey.neighbourhood(question.getId(), new HashSet<>(neighbourIds), corpusVersion);
+            }
+        }
+        if (fileGenerationConfiguration.isSharedModel() && question.getMetrics().isEmpty()) {
+            return TrainingSetKey.fullCorpus(corpusVersion);
+        }
+        return TrainingSetKey.excluding(question.getId(), corpusVersion);
+    }
+
+    private String getPreprocessedContent(Question question) {
+        if (question.getPreprocessedBy() == textPreprocessor.getLemmatizerType()) {
+            return question.getPreprocessedContent();
+        }
+        return textPreprocessor.getPreprocessed(question.getContent());
+    }
+
+    /**
+     * the generated metrics are a part of the corpus as well, but they are chosen among the labels of the corpus,
+     * so mostly they leave the labels as they are. The corpus version, which the cached models are keyed by,
+     * should be incremented only when the labels change, so repeated generations keep predicting with the cached
+     * models, and the other changes of the generated metrics are trained on with the next change of the corpus.
+     * The question is flushed, so the persistence timer includes the statements, not only the dirty checking
+     *
+     * @param updatable  question the metrics were generated for, managed by the persistence context
+     * @param metricsIds ids of the generated metrics
+     * @return true if a metric became or stopped being a label of the corpus
+     */
+    private boolean updateGeneratedMetrics(Question updatable, List<Long> metricsIds) {
+        val oldMetricsIds = getMetricsIds(updatable);
+        val newMetricsIds = new HashSet<>(metricsIds);
+        if (oldMetricsIds.equals(newMetricsIds)) {
+            return false;
+        }
+        val changedMetricsIds = new HashSet<>(oldMetricsIds);
+        changedMetricsIds.addAll(newMetricsIds);
+        changedMetricsIds.removeIf(id -> oldMetricsIds.contains(id) && newMetricsIds.contains(id));
+        val labelsChanged = questionRepository.countMetricsOfOtherQuestions(updatable.getId(), changedMetricsIds)
+                < changedMetricsIds.size();
+        generationMetrics.time(GenerationMetrics.Stage.PERSISTENCE, () -> {
+            val newMetrics = metricCatalog.getMetrics(metricsIds);
+            updatable.setMetrics(new HashSet<>(newMetrics));
+            return questionRepository.saveAndFlush(updatable);
+        });
+        lemmaIndex.index(updatable.getId(), updatable.getPreprocessedContent(), newMetricsIds);
+        return labelsChanged;
+    }
+
+    private Set<Long> getMetricsIds(Question question) {
+        if (question.getMetrics() == null) {
+            return emptySet();
+        }
+        return question.getMetrics().stream()
+                .map(Metric::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * reads only the columns the generation needs, without loading the questions and their metrics as entities.
+     * The rows are streamed, so no entities are hydrated or kept in the persistence context, but they are still
+     * collected into the list, so the whole corpus is held in memory while the model is trained.
+     * The stream needs a transaction. The annotation opens one only for the calls from other beans,
+     * the calls from this service bypass the proxy and have to run within the transaction of the caller
+     */
+    @Transactional
+    public List<QuestionGenerateMetricsRequest> getAllQuestionsForGeneration() {
+        try (val rows = questionRepository.streamAllMetricRows()) {
+            return QuestionGenerateMetricsRequest.buildFrom(rows);
+        }
+    }
+
+    /**
+     * has to be called within a transaction, as the rows are streamed
+     *
+     * @param trainingSetKeys training sets the questions are loaded for
+     * @return only the questions of the neighbourhoods if all training sets are neighbourhoods, otherwise all questions
+     */
+    private List<QuestionGenerateMetricsRequest> getQuestionsForGeneration(Collection<TrainingSetKey> trainingSetKeys) {
+        if (trainingSetKeys.stream().anyMatch(trainingSetKey -> trainingSetKey.getQuestionIds() == null)) {
+            return getAllQuestionsForGeneration();
+        }
+        val questionIds = trainingSetKeys.stream()
+                .flatMap(trainingSetKey -> trainingSetKey.getQuestionIds().stream())
+                .collect(Collectors.toSet());
+        try (val rows = questionRepository.streamMetricRowsByIdIn(questionIds)) {
+            return QuestionGenerateMetricsRequest.buildFrom(rows);
+        }
+    }
+
+    @Transactional
     public QuestionUpdateMetricsRequest updateMetricsBy(
             Long questionId,
             QuestionUpdateMetricsRequest questionUpdateMetricsRequest
@@ -113,12 +361,18 @@ public class QuestionService {
         );
         val newMetrics = metricService.getAllByIds(questionUpdateMetricsRequest.getMetricIds());
         updatable.setMetrics(new HashSet<>(newMetrics));
-        return QuestionUpdateMetricsRequest.buildFrom(save(updatable));
+        val saved = save(updatable);
+        lemmaIndex.index(saved.getId(), saved.getPreprocessedContent(), getMetricsIds(saved));
+        corpusVersionService.increment();
+        return QuestionUpdateMetricsRequest.buildFrom(saved);
     }
 
+    @Transactional
     public void deleteById(Long questionId) {
         getQuestionById(questionId, new ForbiddenException("Question with id  " + questionId + "does not exist"));
         questionRepository.deleteById(questionId);
+        lemmaIndex.remove(questionId);
+        corpusVersionService.increment();
     }
 
 }
@@ -0,0 +1,111 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.metrics_generation.LemmaIndex;
+import com.innometrics.gqm_api.metrics_generation.MetricCatalog;
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trains the model shared by the questions without metrics in the background, so their generations do not train.
+ * The model is retrained metrics-generation.retrainingDelay after the last change of the corpus made by this instance
+ * and every metrics-generation.retrainingInterval, which also picks up the changes made by the other instances,
+ * so the metric catalog and the lemma index are reloaded then as well.
+ */
+@Slf4j
+@Component
+public class SharedModelRetrainer {
+
+    private final QuestionService questionService;
+    private final TextPreprocessor textPreprocessor;
+    private final MetricCatalog metricCatalog;
+    private final LemmaIndex lemmaIndex;
+    private final FileGenerationConfiguration fileGenerationConfiguration;
+    private final ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> delayedRetraining;
+
+    public SharedModelRetrainer(
+            QuestionService questionService,
+            TextPreprocessor textPreprocessor,
+            MetricCatalog metricCatalog,
+            LemmaIndex lemmaIndex,
+            FileGenerationConfiguration fileGenerationConfiguration
+    ) {
+        this.questionService = questionService;
+        this.textPreprocessor = textPreprocessor;
+        this.metricCatalog = metricCatalog;
+        this.lemmaIndex = lemmaIndex;
+        this.fileGenerationConfiguration = fileGenerationConfiguration;
+        val threadFactory = new CustomizableThreadFactory("shared-model-retrainer-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        scheduler.execute(() -> {
+            if (textPreprocessor.awaitReady(1, TimeUnit.HOURS)) {
+                retrain();
+            }
+        });
+        val interval = fileGenerationConfiguration.getRetrainingInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::retrain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * every change postpones the retraining, so a series of changes is trained on once
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCorpusChanged(CorpusChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (delayedRetraining != null) {
+            delayedRetraining.cancel(false);
+        }
+        delayedRetraining = scheduler.schedule(
+                this::retrain,
+                fileGenerationConfiguration.getRetrainingDelay().toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void retrain() {
+        if (!textPreprocessor.isReady()) {
+            return;
+        }
+        try {
+            metricCatalog.load();
+            lemmaIndex.load();
+            questionService.trainSharedModel();
+        } catch (Exception e) {
+            log.error("Shared model retraining failed", e);
+        }
+    }
+
+    private boolean isEnabled() {
+        return fileGenerationConfiguration.isSharedModel() && fileGenerationConfiguration.getRetrainingInterval() != null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.model.Token;
+import com.innometrics.gqm_api.repositories.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TokenService {
+
+    private final TokenRepository tokenRepository;
+
+    public List<Token> getAll() {
+        return tokenRepository.findAll();
+    }
+
+    /**
+     * the token is committed on its own, so its id stays valid even if the write which met it is rolled back
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public Token create(Token.Kind kind, String name) {
+        return tokenRepository.save(Token.builder().kind(kind).name(name).build());
+    }
+
+    /**
+     * the tokens are committed on their own in one transaction, see {@link #create(Token.Kind, String)}
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public List<Token> createAll(Token.Kind kind, Collection<String> names) {
+        val tokens = tokenRepository.saveAll(
+                names.stream()
+                     .map(name -> Token.builder().kind(kind).name(name).build())
+                     .collect(Collectors.toList())
+        );
+        tokenRepository.flush();
+        return tokens;
+    }
+
+    public Optional<Token> find(Token.Kind kind, String name) {
+        return tokenRepository.findByKindAndName(kind, name);
+    }
+
+}
@@ -5,12 +5,55 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @Configuration
 @ConfigurationProperties(prefix = "metrics-generation")
 public class FileGenerationConfiguration {
 
+    public enum LemmatizerType {
+        /**
+         * StanfordCoreNLP pipeline with the part of speech tagger
+         */
+        CORENLP,
+        /**
+         * rule and dictionary based morphology without the tagger and the models
+         */
+        LIGHT
+    }
+
     private String mulanInputFilesDirectory;
 
+    private boolean dumpMulanInputFiles;
+
+    private int modelCacheSize = 32;
+
+    private boolean sharedModel;
+
+    private int jobThreads = 2;
+
+    private int jobQueueCapacity = 16;
+
+    private int jobHistorySize = 1000;
+
+    private int lemmaMemoSize = 50000;
+
+    private String lemmaMemoFile;
+
+    private LemmatizerType lemmatizer = LemmatizerType.CORENLP;
+
+    private int preprocessingParallelism = Runtime.getRuntime().availableProcessors();
+
+    private int trainingParallelism = Runtime.getRuntime().availableProcessors();
+
+    private String modelSnapshotFile;
+
+    private Duration retrainingInterval;
+
+    private Duration retrainingDelay = Duration.ofSeconds(10);
+
+    private int neighbourhoodSize;
+
 }
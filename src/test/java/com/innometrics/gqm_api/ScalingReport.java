@@ -0,0 +1,251 @@
+package com.innometrics.gqm_api;
+
+import com.innometrics.gqm_api.dto.QuestionUpdateMetricsRequest;
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
+import com.innometrics.gqm_api.repositories.GoalRepository;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import com.innometrics.gqm_api.service.QuestionService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures how the latency of the metrics generation and the heap grow with the corpus. For every step
+ * the application is started on its own in-memory H2 database and a random port, seeded with a synthetic corpus
+ * ({@link SyntheticGqmCorpus}) and the generate-metrics endpoint is called over HTTP for the sampled questions
+ * one after another. Nothing but localhost is used, so it runs offline. Run it with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.innometrics.gqm_api.ScalingReport \
+ *     -Dscaling.steps=100:10:200,1000:40:800 -Dscaling.requests=20
+ * </pre>
+ * every step is questions:metrics:vocabulary size, the other settings are scaling.maxMetricsPerQuestion,
+ * scaling.zipfExponent, scaling.lemmatizer and scaling.seed. The allocation is summed over the threads
+ * of the JVM while the requests run, so it includes whatever else runs in the background at that time.
+ * The report is printed and written to target/scaling-report.csv and target/scaling-report.html
+ */
+public class ScalingReport {
+
+    private static final String DEFAULT_STEPS = "100:10:200,300:20:400,1000:40:800,3000:80:1600";
+
+    public static void main(String[] args) throws IOException {
+        int requests = Integer.getInteger("scaling.requests", 10);
+        int maxMetricsPerQuestion = Integer.getInteger("scaling.maxMetricsPerQuestion", 3);
+        double zipfExponent = Double.parseDouble(System.getProperty("scaling.zipfExponent", "1.0"));
+        String lemmatizer = System.getProperty("scaling.lemmatizer", "light");
+        long seed = Long.getLong("scaling.seed", 42);
+
+        List<Step> steps = new ArrayList<>();
+        for (String step : System.getProperty("scaling.steps", DEFAULT_STEPS).split(",")) {
+            String[] sizes = step.trim().split(":");
+            steps.add(new Step(Integer.parseInt(sizes[0]), Integer.parseInt(sizes[1]), Integer.parseInt(sizes[2])));
+        }
+
+        for (Step step : steps) {
+            SyntheticGqmCorpus corpus = new SyntheticGqmCorpus(
+                    step.questions, step.metrics, step.vocabulary, maxMetricsPerQuestion, zipfExponent, seed
+            );
+            run(step, corpus, requests, lemmatizer, new Random(seed));
+            System.out.println(step.toCsv());
+        }
+
+        StringBuilder csv = new StringBuilder(Step.CSV_HEADER).append('\n');
+        steps.forEach(step -> csv.append(step.toCsv()).append('\n'));
+        System.out.printf("%n%s", csv);
+        Path output = Paths.get("target", "scaling-report.csv");
+        Files.createDirectories(output.getParent());
+        Files.write(output, csv.toString().getBytes());
+        Files.write(Paths.get("target", "scaling-report.html"), html(steps, lemmatizer, zipfExponent).getBytes());
+        System.exit(0);
+    }
+
+    private static void run(Step step, SyntheticGqmCorpus corpus, int requests, String lemmatizer, Random random) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GqmApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:scaling-" + step.questions + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "metrics-generation.lemmatizer=" + lemmatizer
+                )
+                .run()) {
+            if (!context.getBean(TextPreprocessor.class).awaitReady(10, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("NLP models are not loaded");
+            }
+            List<Long> questionIds = corpus.seed(
+                    context.getBean(GoalRepository.class),
+                    context.getBean(MetricRepository.class),
+                    context.getBean(QuestionRepository.class)
+            );
+            QuestionService questionService = context.getBean(QuestionService.class);
+            // the questions written through the API have their preprocessed contents stored
+            int preprocessed;
+            do {
+                preprocessed = questionService.backfillPreprocessedContents();
+            } while (preprocessed > 0);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String url = "http://localhost:" + port + "/api/questions/{id}/generate-metrics";
+            RestTemplate restTemplate = new RestTemplate();
+            List<Long> sample = new ArrayList<>(questionIds);
+            Collections.shuffle(sample, random);
+            sample = sample.subList(0, Math.min(requests + 1, sample.size()));
+
+            // the first request also loads the classes and warms up the connection
+            restTemplate.exchange(url, HttpMethod.PUT, null, QuestionUpdateMetricsRequest.class, sample.get(0));
+
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (Long questionId : sample.subList(1, sample.size())) {
+                long requestStart = System.nanoTime();
+                restTemplate.exchange(url, HttpMethod.PUT, null, QuestionUpdateMetricsRequest.class, questionId);
+                step.latenciesMillis.add((System.nanoTime() - requestStart) / 1e6);
+            }
+            step.elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            step.allocatedMegabytes = (allocatedBytes() - allocatedBefore) / 1024.0 / 1024.0;
+            step.heapMegabytes = usedHeap() / 1024.0 / 1024.0;
+        }
+    }
+
+    /**
+     * @return bytes allocated so far by the live threads of the JVM
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            allocated += Math.max(bytes, 0);
+        }
+        return allocated;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String html(List<Step> steps, String lemmatizer, double zipfExponent) {
+        StringBuilder table = new StringBuilder("<tr>");
+        for (String column : Step.CSV_HEADER.split(",")) {
+            table.append("<th>").append(column).append("</th>");
+        }
+        table.append("</tr>\n");
+        for (Step step : steps) {
+            table.append("<tr>");
+            for (String value : step.toCsv().split(",")) {
+                table.append("<td>").append(value).append("</td>");
+            }
+            table.append("</tr>\n");
+        }
+        return "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Metrics generation scaling</title>\n"
+                + "<style>body{font-family:sans-serif}table{border-collapse:collapse}"
+                + "td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}</style></head><body>\n"
+                + "<h1>Metrics generation scaling</h1>\n"
+                + String.format("<p>lemmatizer: %s, Zipf exponent: %.2f</p>%n", lemmatizer, zipfExponent)
+                + chart(steps, "Latency, ms", new String[]{"p50", "p90", "p99"},
+                        step -> new double[]{step.percentile(50), step.percentile(90), step.percentile(99)})
+                + chart(steps, "Heap after the requests, MB", new String[]{"heap"},
+                        step -> new double[]{step.heapMegabytes})
+                + "<table>\n" + table + "</table>\n</body></html>\n";
+    }
+
+    /**
+     * line chart of the values against the number of questions, drawn as SVG, so the report has no dependencies
+     */
+    private static String chart(
+            List<Step> steps,
+            String title,
+            String[] series,
+            Function<Step, double[]> values
+    ) {
+        int width = 640;
+        int height = 320;
+        int margin = 50;
+        double maxQuestions = steps.stream().mapToInt(step -> step.questions).max().orElse(1);
+        double maxValue = steps.stream().flatMapToDouble(step -> Arrays.stream(values.apply(step))).max().orElse(1);
+        String[] colors = {"#1f77b4", "#ff7f0e", "#d62728"};
+
+        StringBuilder svg = new StringBuilder(String.format(
+                "<h2>%s</h2>%n<svg width=\"%d\" height=\"%d\">%n", title, width, height
+        ));
+        svg.append(String.format(
+                "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"black\"/>%n"
+                        + "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"black\"/>%n",
+                margin, height - margin, width - margin, height - margin, margin, margin, margin, height - margin
+        ));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">%.0f</text>%n", 5, margin, maxValue));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%.0f questions</text>%n",
+                width - margin, height - margin + 20, maxQuestions));
+        for (int i = 0; i < series.length; i++) {
+            StringBuilder points = new StringBuilder();
+            for (Step step : steps) {
+                double x = margin + (width - 2 * margin) * step.questions / maxQuestions;
+                double y = height - margin - (height - 2 * margin) * values.apply(step)[i] / maxValue;
+                points.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+            }
+            svg.append(String.format(
+                    "<polyline points=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>%n"
+                            + "<text x=\"%d\" y=\"%d\" fill=\"%s\">%s</text>%n",
+                    points.toString().trim(), colors[i], width - margin + 5, margin + 15 * i, colors[i], series[i]
+            ));
+        }
+        return svg.append("</svg>\n").toString();
+    }
+
+    private static class Step {
+
+        static final String CSV_HEADER = "questions,metrics,vocabulary,requests,p50_ms,p90_ms,p99_ms,max_ms,mean_ms,"
+                + "allocated_mb_per_request,allocation_rate_mb_per_s,heap_mb";
+
+        final int questions;
+        final int metrics;
+        final int vocabulary;
+        final List<Double> latenciesMillis = new ArrayList<>();
+        double elapsedSeconds;
+        double allocatedMegabytes;
+        double heapMegabytes;
+
+        Step(int questions, int metrics, int vocabulary) {
+            this.questions = questions;
+            this.metrics = metrics;
+            this.vocabulary = vocabulary;
+        }
+
+        /**
+         * nearest rank percentile
+         */
+        double percentile(int percent) {
+            List<Double> sorted = new ArrayList<>(latenciesMillis);
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+            return sorted.get(Math.max(rank, 1) - 1);
+        }
+
+        String toCsv() {
+            int requests = latenciesMillis.size();
+            return String.format(Locale.ROOT, "%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f",
+                    questions, metrics, vocabulary, requests,
+                    percentile(50), percentile(90), percentile(99), percentile(100),
+                    latenciesMillis.stream().mapToDouble(Double::doubleValue).average().orElse(0),
+                    allocatedMegabytes / requests, allocatedMegabytes / elapsedSeconds, heapMegabytes);
+        }
+
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.innometrics.gqm_api;
+
+import com.innometrics.gqm_api.model.Goal;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.model.Question;
+import com.innometrics.gqm_api.repositories.GoalRepository;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+
+import java.util.*;
+
+/**
+ * Seeds the database with synthetic goals, questions and metric assignments. The metrics are picked
+ * by their Zipfian popularity, so a few metrics are assigned to most questions and many to a few.
+ * Every metric has its topic word which is put into the contents of its questions, the rest of the content
+ * is taken from a vocabulary of made-up words, also by their Zipfian frequency, so the classifier
+ * has something to learn and the number of distinct lemmas is controlled by the vocabulary size.
+ */
+final class SyntheticGqmCorpus {
+
+    private static final String[] OPENINGS = {
+            "How many", "What is the number of", "How much time is spent on", "How often do developers make",
+            "What is the average size of", "Which team has the most"
+    };
+
+    private static final String CONSONANTS = "bdfgklmnprtvz";
+    private static final String VOWELS = "aeiou";
+    private static final int BATCH_SIZE = 500;
+
+    private final int questionsCount;
+    private final int metricsCount;
+    private final int vocabularySize;
+    private final int maxMetricsPerQuestion;
+    private final double zipfExponent;
+    private final Random random;
+
+    /**
+     * @param questionsCount        number of the questions, there is one goal per 10 questions
+     * @param metricsCount          number of the metrics
+     * @param vocabularySize        number of the made-up words the contents are made of besides the topic words
+     * @param maxMetricsPerQuestion every question gets from 1 to that many distinct metrics, uniformly
+     * @param zipfExponent          exponent of the metrics popularity and the words frequency, 0 is uniform
+     * @param seed                  the same seed gives the same corpus
+     */
+    SyntheticGqmCorpus(
+            int questionsCount,
+            int metricsCount,
+            int vocabularySize,
+            int maxMetricsPerQuestion,
+            double zipfExponent,
+            long seed
+    ) {
+        this.questionsCount = questionsCount;
+        this.metricsCount = metricsCount;
+        this.vocabularySize = vocabularySize;
+        this.maxMetricsPerQuestion = Math.min(maxMetricsPerQuestion, metricsCount);
+        this.zipfExponent = zipfExponent;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return ids of the seeded questions
+     */
+    List<Long> seed(
+            GoalRepository goalRepository,
+            MetricRepository metricRepository,
+            QuestionRepository questionRepository
+    ) {
+        List<Metric> metrics = new ArrayList<>();
+        for (int i = 0; i < metricsCount; i++) {
+            metrics.add(Metric.builder()
+                              .name("metric " + i)
+                              .description("synthetic metric about " + word(vocabularySize + i))
+                              .build());
+        }
+        metrics = metricRepository.saveAll(metrics);
+
+        List<Goal> goals = new ArrayList<>();
+        for (int i = 0; i < (questionsCount + 9) / 10; i++) {
+            goals.add(Goal.builder()
+                          .content("Synthetic goal " + word(i))
+                          .userEmail("user" + i % 100 + "@synthetic.test")
+                          .build());
+        }
+        goals = goalRepository.saveAll(goals);
+
+        ZipfDistribution metricsPopularity = new ZipfDistribution(metricsCount, zipfExponent);
+        ZipfDistribution wordsFrequency = new ZipfDistribution(vocabularySize, zipfExponent);
+        Set<String> contents = new HashSet<>();
+        List<Long> questionIds = new ArrayList<>();
+        List<Question> batch = new ArrayList<>();
+        while (contents.size() < questionsCount) {
+            Set<Integer> assigned = new LinkedHashSet<>();
+            int assignedCount = 1 + random.nextInt(maxMetricsPerQuestion);
+            while (assigned.size() < assignedCount) {
+                assigned.add(metricsPopularity.sample(random));
+            }
+
+            StringBuilder content = new StringBuilder(OPENINGS[random.nextInt(OPENINGS.length)]);
+            for (int metric : assigned) {
+                content.append(' ').append(word(vocabularySize + metric));
+            }
+            for (int i = 2 + random.nextInt(3); i > 0; i--) {
+                content.append(' ').append(word(wordsFrequency.sample(random)));
+            }
+            content.append('?');
+            if (!contents.add(content.toString())) {
+                continue;
+            }
+
+            Set<Metric> questionMetrics = new HashSet<>();
+            for (int metric : assigned) {
+                questionMetrics.add(metrics.get(metric));
+            }
+            batch.add(Question.builder()
+                              .content(content.toString())
+                              .goal(goals.get(random.nextInt(goals.size())))
+                              .metrics(questionMetrics)
+                              .build());
+            if (batch.size() == BATCH_SIZE || contents.size() == questionsCount) {
+                for (Question question : questionRepository.saveAll(batch)) {
+                    questionIds.add(question.getId());
+                }
+                batch.clear();
+            }
+        }
+        return questionIds;
+    }
+
+    /**
+     * @return made-up word of two or more consonant-vowel syllables, distinct for every number,
+     * ending with a vowel, so the lemmatizers mostly leave it as it is
+     */
+    private static String word(int number) {
+        StringBuilder word = new StringBuilder();
+        int syllables = CONSONANTS.length() * VOWELS.length();
+        int rest = number;
+        do {
+            int syllable = rest % syllables;
+            word.append(CONSONANTS.charAt(syllable / VOWELS.length()))
+                .append(VOWELS.charAt(syllable % VOWELS.length()));
+            rest /= syllables;
+        } while (rest > 0 || word.length() < 4);
+        return word.toString();
+    }
+
+    /**
+     * ranks from 0 to size - 1, the probability of the rank k is proportional to 1 / (k + 1)^exponent
+     */
+    private static class ZipfDistribution {
+
+        private final double[] cumulativeProbabilities;
+
+        ZipfDistribution(int size, double exponent) {
+            cumulativeProbabilities = new double[size];
+            double sum = 0;
+            for (int k = 0; k < size; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulativeProbabilities[k] = sum;
+            }
+            for (int k = 0; k < size; k++) {
+                cumulativeProbabilities[k] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int rank = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+            return Math.min(rank >= 0 ? rank : -rank - 1, cumulativeProbabilities.length - 1);
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.innometrics.gqm_api.controllers;
 
 import com.innometrics.gqm_api.dto.*;
+import com.innometrics.gqm_api.metrics_generation.LemmaIndex;
 import com.innometrics.gqm_api.model.Goal;
 import com.innometrics.gqm_api.model.Question;
 import com.innometrics.gqm_api.repositories.GoalRepository;
@@ -22,6 +23,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.util.List;
 import java.util.Optional;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.*;
 
 @NoArgsConstructor
@@ -38,6 +41,8 @@ public class GoalRestControllerTest {
     GoalRepository goalRepository;
     @Autowired
     QuestionRepository questionRepository;
+    @Autowired
+    LemmaIndex lemmaIndex;
 
     @BeforeEach
     public void cleanUp() {
@@ -238,6 +243,39 @@ public class GoalRestControllerTest {
 
     //updateGoal tests
 
+    //generateMetrics tests
+    @Test
+    public void generateMetrics_whenGoalIsNotInDB_receiveNotFound() {
+        ResponseEntity<Object> response = testRestTemplate.exchange(
+                API_GOALS + "/1/generate-metrics",
+                HttpMethod.PUT,
+                null,
+                Object.class
+        );
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void generateMetrics_whenGoalHasTwoQuestions_receiveTwoItems() {
+        //given
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        questionRepository.save(createQuestion(goal));
+        questionRepository.save(createQuestion(goal));
+
+        //when
+        val response = testRestTemplate.exchange(
+                API_GOALS + "/" + goal.getId() + "/generate-metrics",
+                HttpMethod.PUT,
+                null,
+                QuestionMetricsResponse[].class
+        );
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().length);
+    }
+
     //deleteGoal tests
     @Test
     public void deleteGoal_whenGoalIsNotInDb_receiveForbidden() {
@@ -294,6 +332,25 @@ public class GoalRestControllerTest {
         assertFalse(optionalQuestion.isPresent());
     }
 
+    @Test
+    public void deleteGoal_whenGoalHasIndexedQuestions_questionsRemovedFromLemmaIndex() {
+        //given
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Question question = questionRepository.save(createQuestion(goal));
+        lemmaIndex.index(question.getId(), "question content", singletonList(1L));
+
+        //when
+        testRestTemplate.exchange(
+                API_GOALS + "/" + goal.getId(),
+                HttpMethod.DELETE,
+                null,
+                Object.class
+        );
+
+        //then
+        assertEquals(emptyList(), lemmaIndex.findNeighbours("question content", 10, null));
+    }
+
     private Goal createValidGoal(String content, String mail) {
         val goalBaseDto = GoalBaseDto.builder()
                    .content(content)
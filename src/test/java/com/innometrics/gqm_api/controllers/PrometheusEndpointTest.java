@@ -0,0 +1,88 @@
+package com.innometrics.gqm_api.controllers;
+
+import com.innometrics.gqm_api.dto.QuestionUpdateMetricsRequest;
+import com.innometrics.gqm_api.model.Goal;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.model.Question;
+import com.innometrics.gqm_api.repositories.GoalRepository;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@NoArgsConstructor
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PrometheusEndpointTest {
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+    @Autowired
+    GoalRepository goalRepository;
+    @Autowired
+    MetricRepository metricRepository;
+    @Autowired
+    QuestionRepository questionRepository;
+
+    @BeforeEach
+    public void cleanUp() {
+        questionRepository.deleteAll();
+        goalRepository.deleteAll();
+        metricRepository.deleteAll();
+    }
+
+    @Test
+    public void scrape_whenMetricsWereGenerated_receiveGenerationMeters() {
+        //given
+        Goal goal = goalRepository.save(Goal.builder().content("test1 content").userEmail("test1@mail.ru").build());
+        Metric metric = metricRepository.save(
+                Metric.builder().name("test1 metric").description("this is test1 metric").build()
+        );
+        questionRepository.save(Question.builder()
+                                        .content("question content")
+                                        .goal(goal)
+                                        .metrics(new HashSet<>(asList(metric)))
+                                        .build());
+        Question question = questionRepository.save(Question.builder()
+                                                            .content("other question content")
+                                                            .goal(goal)
+                                                            .build());
+        testRestTemplate.exchange(
+                "/api/questions/" + question.getId() + "/generate-metrics",
+                HttpMethod.PUT,
+                null,
+                QuestionUpdateMetricsRequest.class
+        );
+
+        //when
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("gqm_generation_stage_seconds_count{stage=\"corpus_loading\",}"));
+        assertTrue(response.getBody().contains("gqm_generation_model_cache_total{result=\"miss\",}"));
+        assertTrue(response.getBody().contains("gqm_generation_corpus_size"));
+        assertTrue(response.getBody().contains("gqm_generation_vocabulary_size{kind=\"lemma\",}"));
+        assertTrue(response.getBody().contains("gqm_generation_labels"));
+        assertTrue(response.getBody().contains("gqm_generation_model_age_seconds"));
+    }
+
+}
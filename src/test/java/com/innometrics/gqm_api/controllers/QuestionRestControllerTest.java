@@ -1,12 +1,15 @@
 package com.innometrics.gqm_api.controllers;
 
 import com.innometrics.gqm_api.dto.*;
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
 import com.innometrics.gqm_api.model.Goal;
 import com.innometrics.gqm_api.model.Metric;
 import com.innometrics.gqm_api.model.Question;
 import com.innometrics.gqm_api.repositories.GoalRepository;
 import com.innometrics.gqm_api.repositories.MetricRepository;
 import com.innometrics.gqm_api.repositories.QuestionRepository;
+import com.innometrics.gqm_api.service.GenerationJob;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
 import lombok.NoArgsConstructor;
 import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +28,9 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,6 +51,10 @@ public class QuestionRestControllerTest {
     MetricRepository metricRepository;
     @Autowired
     QuestionRepository questionRepository;
+    @Autowired
+    TextPreprocessor textPreprocessor;
+    @Autowired
+    FileGenerationConfiguration fileGenerationConfiguration;
 
     @BeforeEach
     public void cleanUp() {
@@ -190,6 +201,25 @@ public class QuestionRestControllerTest {
         assertEquals(1, questionRepository.count());
     }
 
+    @Test
+    public void createQuestion_whenNlpModelsAreLoaded_preprocessedContentSavedToDatabase() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Question question = createValidQuestion(goal);
+
+        //when
+        testRestTemplate.postForEntity(
+                API_QUESTIONS,
+                QuestionCreateUpdateRequest.buildFrom(question),
+                Object.class
+        );
+
+        //then
+        Question saved = questionRepository.findAll().get(0);
+        assertEquals(textPreprocessor.getPreprocessed(saved.getContent()), saved.getPreprocessedContent());
+    }
+
     @Test
     public void createQuestion_whenQuestionIsValid_receiveNotNull() {
         Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
@@ -254,6 +284,209 @@ public class QuestionRestControllerTest {
         assertEquals(2, response.getBody().getValidationErrors().size());
     }
 
+    //generateMetrics tests
+    @Test
+    public void generateMetrics_whenQuestionIsNotInDB_receiveNotFound() {
+        ResponseEntity<Object> response = testRestTemplate.exchange(
+                API_QUESTIONS + "/1/generate-metrics",
+                HttpMethod.PUT,
+                null,
+                Object.class
+        );
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void generateMetrics_whenQuestionIsInDb_receiveOK() {
+        //given
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Metric metric = metricRepository.save(
+                createValidMetric("test1 metric", "this is test1 metric")
+        );
+        questionRepository.save(createQuestionWithMetrics(goal, metric));
+        Question question = questionRepository.save(createValidQuestion(goal));
+
+        //when
+        ResponseEntity<QuestionUpdateMetricsRequest> response = testRestTemplate.exchange(
+                API_QUESTIONS + "/" + question.getId() + "/generate-metrics",
+                HttpMethod.PUT,
+                null,
+                QuestionUpdateMetricsRequest.class
+        );
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void generateMetrics_whenTopKIsGiven_receiveTopKMostConfidentRecommendations() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Metric commits = metricRepository.save(createValidMetric("commits", "number of commits"));
+        Metric bugs = metricRepository.save(createValidMetric("bugs", "number of bugs"));
+        Metric coverage = metricRepository.save(createValidMetric("coverage", "test coverage"));
+        Metric velocity = metricRepository.save(createValidMetric("velocity", "sprint velocity"));
+        questionRepository.save(createQuestionWithMetrics(goal, "How many commits are made per day?", commits));
+        questionRepository.save(createQuestionWithMetrics(goal, "How many bugs are found per release?", bugs));
+        questionRepository.save(createQuestionWithMetrics(goal, "How much code is covered by tests?", coverage));
+        questionRepository.save(createQuestionWithMetrics(goal, "How fast does the team finish a sprint?", velocity));
+        questionRepository.save(createQuestionWithMetrics(goal, "How many commits fix bugs?", commits, bugs));
+        Question question = questionRepository.save(createValidQuestion(goal));
+
+        //when
+        ResponseEntity<QuestionGeneratedMetricsResponse> response = testRestTemplate.exchange(
+                API_QUESTIONS + "/" + question.getId() + "/generate-metrics?topK=2&minConfidence=0",
+                HttpMethod.PUT,
+                null,
+                QuestionGeneratedMetricsResponse.class
+        );
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        val recommendations = response.getBody().getRecommendations();
+        assertEquals(2, recommendations.size());
+        assertTrue(recommendations.get(0).getConfidence() >= recommendations.get(1).getConfidence());
+    }
+
+    @Test
+    public void generateMetrics_whenNeighbourhoodSizeIsSet_receiveOK() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        for (int i = 0; i < 3; i++) {
+            testRestTemplate.postForEntity(
+                    API_QUESTIONS,
+                    QuestionCreateUpdateRequest.buildFrom(createValidQuestion(goal)),
+                    Object.class
+            );
+        }
+        Long questionId = questionRepository.findAll().get(0).getId();
+        fileGenerationConfiguration.setNeighbourhoodSize(1);
+
+        //when
+        ResponseEntity<QuestionGeneratedMetricsResponse> response;
+        try {
+            response = testRestTemplate.exchange(
+                    API_QUESTIONS + "/" + questionId + "/generate-metrics",
+                    HttpMethod.PUT,
+                    null,
+                    QuestionGeneratedMetricsResponse.class
+            );
+        } finally {
+            fileGenerationConfiguration.setNeighbourhoodSize(0);
+        }
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void generateMetrics_whenNeighboursHaveTooFewMetrics_receiveRecommendationsOfOtherQuestions() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Metric commits = metricRepository.save(createValidMetric("commits", "number of commits"));
+        Metric bugs = metricRepository.save(createValidMetric("bugs", "number of bugs"));
+        Metric coverage = metricRepository.save(createValidMetric("coverage", "test coverage"));
+        Metric velocity = metricRepository.save(createValidMetric("velocity", "sprint velocity"));
+        createThroughApi(goal, "How many commits are made per day?", commits);
+        createThroughApi(goal, "How many bugs are found per release?", bugs);
+        createThroughApi(goal, "How much code is covered by tests?", coverage);
+        createThroughApi(goal, "How fast does the team finish a sprint?", velocity);
+        Question question = createThroughApi(goal, "How many commits are made per week?");
+        fileGenerationConfiguration.setNeighbourhoodSize(1);
+
+        //when
+        ResponseEntity<QuestionGeneratedMetricsResponse> response;
+        try {
+            response = testRestTemplate.exchange(
+                    API_QUESTIONS + "/" + question.getId() + "/generate-metrics?minConfidence=0",
+                    HttpMethod.PUT,
+                    null,
+                    QuestionGeneratedMetricsResponse.class
+            );
+        } finally {
+            fileGenerationConfiguration.setNeighbourhoodSize(0);
+        }
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, response.getBody().getRecommendations().size());
+    }
+
+    @Test
+    public void generateMetrics_whenTopKIsNotPositive_receiveBadRequest() {
+        //given
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Question question = questionRepository.save(createValidQuestion(goal));
+
+        //when
+        ResponseEntity<Object> response = testRestTemplate.exchange(
+                API_QUESTIONS + "/" + question.getId() + "/generate-metrics?topK=0",
+                HttpMethod.PUT,
+                null,
+                Object.class
+        );
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    //submitGenerateMetrics tests
+    @Test
+    public void submitGenerateMetrics_whenQuestionIsNotInDB_receiveNotFound() {
+        ResponseEntity<Object> response = testRestTemplate.postForEntity(
+                API_QUESTIONS + "/1/generate-metrics/jobs",
+                null,
+                Object.class
+        );
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void submitGenerateMetrics_whenQuestionIsInDb_receiveDoneJob() throws InterruptedException {
+        //given
+        Goal goal = goalRepository.save(createValidGoal("test1 content", "test1@mail.ru"));
+        Metric metric = metricRepository.save(
+                createValidMetric("test1 metric", "this is test1 metric")
+        );
+        questionRepository.save(createQuestionWithMetrics(goal, metric));
+        Question question = questionRepository.save(createValidQuestion(goal));
+
+        //when
+        val submitted = testRestTemplate.postForEntity(
+                API_QUESTIONS + "/" + question.getId() + "/generate-metrics/jobs",
+                null,
+                GenerationJobResponse.class
+        );
+        assertEquals(HttpStatus.ACCEPTED, submitted.getStatusCode());
+        assertNotNull(submitted.getBody());
+        GenerationJobResponse job = submitted.getBody();
+        for (int attempt = 0; attempt < 600 && job.getStatus() != GenerationJob.Status.DONE; attempt++) {
+            assertNotEquals(GenerationJob.Status.FAILED, job.getStatus());
+            Thread.sleep(100);
+            job = testRestTemplate.getForObject(
+                    API_QUESTIONS + "/generate-metrics/jobs/" + job.getJobId(),
+                    GenerationJobResponse.class
+            );
+        }
+
+        //then
+        assertEquals(GenerationJob.Status.DONE, job.getStatus());
+        assertEquals(question.getId(), job.getQuestionId());
+        assertNotNull(job.getResult());
+    }
+
+    @Test
+    public void getGenerateMetricsJob_whenJobDoesNotExist_receiveNotFound() {
+        ResponseEntity<Object> response = testRestTemplate.getForEntity(
+                API_QUESTIONS + "/generate-metrics/jobs/" + UUID.randomUUID(),
+                Object.class
+        );
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     //deleteQuestion tests
     @Test
     public void deleteQuestion_whenQuestionIsNotInDb_receiveForbidden() {
@@ -360,6 +593,42 @@ public class QuestionRestControllerTest {
                        .build();
     }
 
+    /**
+     * the question is written through the api, so it is indexed for the neighbourhoods
+     */
+    private Question createThroughApi(Goal goal, String content, Metric... metrics) {
+        testRestTemplate.postForEntity(
+                API_QUESTIONS,
+                QuestionCreateUpdateRequest.buildFrom(Question.builder().content(content).goal(goal).build()),
+                Object.class
+        );
+        Question question = questionRepository.findAll().stream()
+                                              .filter(saved -> content.equals(saved.getContent()))
+                                              .findFirst()
+                                              .orElseThrow(IllegalStateException::new);
+        if (metrics.length > 0) {
+            testRestTemplate.exchange(
+                    API_QUESTIONS + "/" + question.getId() + "/assign-metrics",
+                    HttpMethod.PUT,
+                    new HttpEntity<>(QuestionUpdateMetricsRequest.builder()
+                                                                 .metricIds(asList(metrics).stream()
+                                                                                           .map(Metric::getId)
+                                                                                           .collect(Collectors.toList()))
+                                                                 .build()),
+                    QuestionUpdateMetricsRequest.class
+            );
+        }
+        return question;
+    }
+
+    private Question createQuestionWithMetrics(Goal goal, String content, Metric... metrics) {
+        return Question.builder()
+                       .content(content)
+                       .goal(goal)
+                       .metrics(new HashSet<>(asList(metrics)))
+                       .build();
+    }
+
     private Question createQuestionWithMetrics(Goal goal, Metric metric) {
         return Question.builder()
                        .content("question content")
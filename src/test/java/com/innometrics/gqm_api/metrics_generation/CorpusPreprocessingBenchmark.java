@@ -0,0 +1,54 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * preprocessing of the whole corpus one by one against the parallel stage, the lemma memo is off,
+ * so every question goes through the pipeline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CorpusPreprocessingBenchmark {
+
+    @Param({"100", "1000"})
+    public int corpusSize;
+
+    @Param({"1", "4", "16"})
+    public int parallelism;
+
+    private TextPreprocessor textPreprocessor;
+    private List<String> corpus;
+
+    @Setup
+    public void setUp() {
+        FileGenerationConfiguration configuration = new FileGenerationConfiguration();
+        configuration.setLemmaMemoSize(0);
+        configuration.setPreprocessingParallelism(parallelism);
+        textPreprocessor = new TextPreprocessor(configuration);
+        textPreprocessor.startLoading();
+        if (!textPreprocessor.awaitReady(10, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("NLP models are not loaded", textPreprocessor.getLoadingFailure());
+        }
+        corpus = SyntheticQuestions.generate(corpusSize, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        textPreprocessor.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, String> preprocessCorpus() {
+        return textPreprocessor.getPreprocessed(corpus);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import mulan.data.InvalidDataFormatException;
+import mulan.data.MultiLabelInstances;
+import org.openjdk.jmh.annotations.*;
+import weka.core.Instances;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the stages between the preprocessing and the training: construction of the attributes and the dataset
+ * from the preprocessed questions, and the ARFF form of the dataset which is dumped for the inspection
+ * and parsed back by the tools reading the dumps
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class DatasetStagesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int corpusSize;
+
+    @Param({"10", "100", "500"})
+    public int metricsCount;
+
+    private SyntheticTrainingSet trainingSet;
+    private String arff;
+
+    @Setup
+    public void setUp() {
+        trainingSet = new SyntheticTrainingSet(corpusSize, metricsCount);
+        arff = trainingSet.dataset.getDataSet().toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        trainingSet.shutdown();
+    }
+
+    @Benchmark
+    public TrainedModel buildAttributes() {
+        return trainingSet.metricsGenerator.createUntrainedModel(
+                trainingSet.preprocessedQuestionToMetricsMap,
+                trainingSet.metricsNames
+        );
+    }
+
+    @Benchmark
+    public MultiLabelInstances buildDataset() {
+        return trainingSet.metricsGenerator.createMultiLabelInstances(
+                trainingSet.preprocessedQuestionToMetricsMap,
+                trainingSet.untrainedModel
+        );
+    }
+
+    @Benchmark
+    public String serializeDataset() {
+        return trainingSet.dataset.getDataSet().toString();
+    }
+
+    @Benchmark
+    public MultiLabelInstances parseDataset() throws IOException, InvalidDataFormatException {
+        return new MultiLabelInstances(
+                new Instances(new StringReader(arff)),
+                trainingSet.untrainedModel.getLabelsMetaData()
+        );
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GenerationMetrics generationMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        generationMetrics = new GenerationMetrics(meterRegistry, new Vocabulary(null));
+    }
+
+    @Test
+    public void time_whenStageIsTimed_receiveResultAndRecordedStage() {
+        //when
+        String result = generationMetrics.time(GenerationMetrics.Stage.PREPROCESSING, () -> "lemmas");
+
+        //then
+        assertEquals("lemmas", result);
+        assertEquals(1, meterRegistry.get("gqm.generation.stage").tag("stage", "preprocessing").timer().count());
+        assertEquals(0, meterRegistry.get("gqm.generation.stage").tag("stage", "training").timer().count());
+    }
+
+    @Test
+    public void generated_whenModelIsTrainedOnceAndReused_receiveOneMissAndOneHit() {
+        //when
+        generationMetrics.generated(true, 2);
+        generationMetrics.generated(false, 1);
+
+        //then
+        assertEquals(1, meterRegistry.get("gqm.generation.model.cache").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("gqm.generation.model.cache").tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("gqm.generation.questions").counter().count());
+        assertEquals(3, meterRegistry.get("gqm.generation.recommendations").counter().count());
+    }
+
+    @Test
+    public void modelPublished_whenModelIsPublished_receiveLabelsAndModelAge() {
+        //given
+        double ageBeforePublishing = meterRegistry.get("gqm.generation.model.age").timeGauge().value(TimeUnit.SECONDS);
+
+        //when
+        generationMetrics.corpusLoaded(10);
+        generationMetrics.modelPublished(TrainedModel.builder()
+                                                     .metricsNames(asList("lines of code", "build time", "test coverage"))
+                                                     .trainedAt(System.currentTimeMillis() - 60_000)
+                                                     .build());
+
+        //then
+        assertTrue(Double.isNaN(ageBeforePublishing));
+        assertEquals(10, meterRegistry.get("gqm.generation.corpus.size").gauge().value());
+        assertEquals(3, meterRegistry.get("gqm.generation.labels").gauge().value());
+        assertTrue(meterRegistry.get("gqm.generation.model.age").timeGauge().value(TimeUnit.SECONDS) >= 60);
+        assertEquals(0, meterRegistry.get("gqm.generation.vocabulary.size").tag("kind", "lemma").gauge().value());
+    }
+
+}
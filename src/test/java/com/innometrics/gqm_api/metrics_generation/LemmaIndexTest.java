@@ -0,0 +1,62 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LemmaIndexTest {
+
+    private final LemmaIndex lemmaIndex = new LemmaIndex(null, null, null);
+
+    @Test
+    public void findNeighbours_whenQuestionsShareLemmas_receiveClosestFirst() {
+        lemmaIndex.index(1L, "many line code write day", asList(1L));
+        lemmaIndex.index(2L, "long build take", asList(2L));
+        lemmaIndex.index(3L, "many line code review", asList(3L));
+        lemmaIndex.index(4L, "code review take long", asList(4L));
+
+        assertEquals(asList(3L, 1L, 4L), lemmaIndex.findNeighbours("many line code review", 10, null));
+    }
+
+    @Test
+    public void findNeighbours_whenLimitIsSmaller_receiveLimitedNeighboursWithoutExcluded() {
+        lemmaIndex.index(1L, "many line code write day", asList(1L));
+        lemmaIndex.index(2L, "many line code review", asList(2L));
+        lemmaIndex.index(3L, "code review take long", asList(3L));
+
+        assertEquals(asList(1L), lemmaIndex.findNeighbours("many line code review", 1, 2L));
+    }
+
+    @Test
+    public void findNeighbours_whenQuestionIsRemovedOrReindexed_receiveCurrentContents() {
+        lemmaIndex.index(1L, "many line code write day", asList(1L));
+        lemmaIndex.index(2L, "long build take", asList(2L));
+        lemmaIndex.remove(1L);
+        lemmaIndex.index(2L, "many commit make", asList(2L));
+
+        assertEquals(emptyList(), lemmaIndex.findNeighbours("line code", 10, null));
+        assertEquals(asList(2L), lemmaIndex.findNeighbours("commit", 10, null));
+    }
+
+    @Test
+    public void findNeighbours_whenQuestionHasNoMetrics_receiveOnlyQuestionsWithMetrics() {
+        lemmaIndex.index(1L, "many line code write day", emptyList());
+        lemmaIndex.index(2L, "many line code review", asList(1L));
+        lemmaIndex.index(3L, "code review take long", asList(2L));
+        lemmaIndex.index(3L, "code review take long", emptyList());
+
+        assertEquals(asList(2L), lemmaIndex.findNeighbours("many line code", 10, null));
+    }
+
+    @Test
+    public void countMetrics_whenQuestionsShareMetrics_receiveDistinctMetrics() {
+        lemmaIndex.index(1L, "many line code write day", asList(1L, 2L));
+        lemmaIndex.index(2L, "many line code review", asList(2L, 3L));
+        lemmaIndex.index(3L, "code review take long", asList(4L));
+
+        assertEquals(3, lemmaIndex.countMetrics(asList(1L, 2L, 5L)));
+    }
+
+}
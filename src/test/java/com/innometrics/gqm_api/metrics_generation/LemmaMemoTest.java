@@ -0,0 +1,104 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LemmaMemoTest {
+
+    @Test
+    public void lemmatize_whenTextIsKnown_receiveItsLemmasAndHit() {
+        //given
+        LemmaMemo lemmaMemo = new LemmaMemo(100);
+        String[] words = {"many", "commits", "merged", "developers", "last", "sprint"};
+        lemmaMemo.learn(
+                "many commits merged developers last sprint",
+                words,
+                asList("many", "commit", "merge", "developer", "last", "sprint")
+        );
+
+        //when
+        String lemmas = lemmaMemo.lemmatize("many commits merged developers last sprint", words);
+
+        //then
+        assertEquals("many commit merge developer last sprint", lemmas);
+        assertEquals(1, lemmaMemo.getHits());
+        assertEquals(0, lemmaMemo.getMisses());
+    }
+
+    @Test
+    public void lemmatize_whenAllWordsAreKnown_receiveLemmasAndHit() {
+        //given
+        LemmaMemo lemmaMemo = new LemmaMemo(100);
+        lemmaMemo.learn("project time", new String[]{"project", "time"}, asList("project", "time"));
+
+        //when
+        String lemmas = lemmaMemo.lemmatize("time project", new String[]{"time", "project"});
+
+        //then
+        assertEquals("time project", lemmas);
+        assertEquals(1, lemmaMemo.getHits());
+        assertEquals(0, lemmaMemo.getMisses());
+    }
+
+    @Test
+    public void lemmatize_whenWordIsUnknown_receiveNullAndMiss() {
+        LemmaMemo lemmaMemo = new LemmaMemo(100);
+        lemmaMemo.learn("project", new String[]{"project"}, asList("project"));
+
+        assertNull(lemmaMemo.lemmatize("project review", new String[]{"project", "review"}));
+        assertEquals(1, lemmaMemo.getMisses());
+    }
+
+    @Test
+    public void lemmatize_whenLemmaDependsOnPartOfSpeechInOtherText_receiveNull() {
+        LemmaMemo lemmaMemo = new LemmaMemo(100);
+        lemmaMemo.learn("merged commits", new String[]{"merged", "commits"}, asList("merge", "commit"));
+
+        assertNull(lemmaMemo.lemmatize("merged", new String[]{"merged"}));
+        assertNull(lemmaMemo.lemmatize("commits", new String[]{"commits"}));
+    }
+
+    @Test
+    public void lemmatize_whenMemoIsFull_leastRecentlyUsedIsForgotten() {
+        LemmaMemo lemmaMemo = new LemmaMemo(2);
+        for (String word : asList("project", "time", "code")) {
+            lemmaMemo.learn(word, new String[]{word}, asList(word));
+        }
+
+        assertEquals(4, lemmaMemo.size());
+        assertNull(lemmaMemo.lemmatize("project", new String[]{"project"}));
+        assertEquals("code", lemmaMemo.lemmatize("code", new String[]{"code"}));
+    }
+
+    @Test
+    public void load_whenMemoWasSaved_receiveSameLemmas(@TempDir Path directory) {
+        //given
+        Path file = directory.resolve("lemmas.tsv");
+        LemmaMemo saved = new LemmaMemo(100);
+        saved.learn(
+                "project time cannot",
+                new String[]{"project", "time", "cannot"},
+                asList("project", "time", "can not")
+        );
+        saved.save(file);
+
+        //when
+        LemmaMemo loaded = new LemmaMemo(100);
+        loaded.load(file);
+
+        //then
+        assertEquals(4, loaded.size());
+        assertEquals(
+                "project time can not",
+                loaded.lemmatize("project time cannot", new String[]{"project", "time", "cannot"})
+        );
+        assertEquals("project time", loaded.lemmatize("project time", new String[]{"project", "time"}));
+        assertNull(loaded.lemmatize("cannot", new String[]{"cannot"}));
+    }
+
+}
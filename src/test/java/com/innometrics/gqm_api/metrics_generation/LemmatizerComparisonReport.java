@@ -0,0 +1,145 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the light lemmatizer with the CoreNLP one: heap taken by the loaded lemmatizer, startup time,
+ * share of the questions preprocessed the same way and agreement of the leave-one-out recommendations
+ * on a synthetic corpus. Run it with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.innometrics.gqm_api.metrics_generation.LemmatizerComparisonReport
+ * </pre>
+ * the report is printed and written to target/lemmatizer-comparison.txt
+ */
+public class LemmatizerComparisonReport {
+
+    private static final int CORPUS_SIZE = 300;
+    private static final int EVALUATED_QUESTIONS = 60;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        List<QuestionGenerateMetricsRequest> corpus = SyntheticQuestions.corpus(CORPUS_SIZE, SEED);
+        List<String> contents = corpus.stream()
+                                      .map(QuestionGenerateMetricsRequest::getContent)
+                                      .collect(Collectors.toList());
+
+        Map<LemmatizerType, Run> runs = new EnumMap<>(LemmatizerType.class);
+        // the light one goes first, so the CoreNLP classes are not loaded yet when it's measured
+        for (LemmatizerType lemmatizer : Arrays.asList(LemmatizerType.LIGHT, LemmatizerType.CORENLP)) {
+            runs.put(lemmatizer, run(lemmatizer, corpus, contents));
+        }
+
+        Run light = runs.get(LemmatizerType.LIGHT);
+        Run coreNlp = runs.get(LemmatizerType.CORENLP);
+        int samePreprocessed = 0;
+        for (String content : contents) {
+            if (light.preprocessed.get(content).equals(coreNlp.preprocessed.get(content))) {
+                samePreprocessed++;
+            }
+        }
+        int sameRecommendations = 0;
+        double jaccard = 0;
+        for (int i = 0; i < EVALUATED_QUESTIONS; i++) {
+            Set<Long> lightMetrics = new HashSet<>(light.recommendations.get(i));
+            Set<Long> coreNlpMetrics = new HashSet<>(coreNlp.recommendations.get(i));
+            if (lightMetrics.equals(coreNlpMetrics)) {
+                sameRecommendations++;
+            }
+            Set<Long> union = new HashSet<>(lightMetrics);
+            union.addAll(coreNlpMetrics);
+            Set<Long> intersection = new HashSet<>(lightMetrics);
+            intersection.retainAll(coreNlpMetrics);
+            jaccard += union.isEmpty() ? 1 : (double) intersection.size() / union.size();
+        }
+
+        StringBuilder report = new StringBuilder()
+                .append(String.format("corpus: %d synthetic questions, %d evaluated leave-one-out%n%n",
+                        CORPUS_SIZE, EVALUATED_QUESTIONS))
+                .append(String.format("%-10s %12s %12s %16s %18s%n",
+                        "lemmatizer", "startup, ms", "heap, MB", "corpus prep, ms", "recommend, ms/q"));
+        for (Map.Entry<LemmatizerType, Run> entry : runs.entrySet()) {
+            Run run = entry.getValue();
+            report.append(String.format("%-10s %12d %12.1f %16d %18.1f%n",
+                    entry.getKey(), run.startupMillis, run.heapMegabytes, run.preprocessingMillis,
+                    (double) run.recommendationMillis / EVALUATED_QUESTIONS));
+        }
+        report.append(String.format("%nsame preprocessed content: %d of %d (%.1f%%)%n",
+                        samePreprocessed, contents.size(), 100.0 * samePreprocessed / contents.size()))
+              .append(String.format("same recommendations: %d of %d (%.1f%%)%n",
+                        sameRecommendations, EVALUATED_QUESTIONS, 100.0 * sameRecommendations / EVALUATED_QUESTIONS))
+              .append(String.format("mean Jaccard similarity of recommendations: %.3f%n",
+                        jaccard / EVALUATED_QUESTIONS));
+
+        System.out.print(report);
+        Path output = Paths.get("target", "lemmatizer-comparison.txt");
+        Files.createDirectories(output.getParent());
+        Files.write(output, report.toString().getBytes());
+        System.exit(0);
+    }
+
+    private static Run run(
+            LemmatizerType lemmatizer,
+            List<QuestionGenerateMetricsRequest> corpus,
+            List<String> contents
+    ) {
+        FileGenerationConfiguration configuration = new FileGenerationConfiguration();
+        configuration.setLemmatizer(lemmatizer);
+        configuration.setLemmaMemoSize(0);
+        configuration.setPreprocessingParallelism(1);
+
+        Run run = new Run();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        TextPreprocessor textPreprocessor = new TextPreprocessor(configuration);
+        textPreprocessor.startLoading();
+        if (!textPreprocessor.awaitReady(10, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Lemmatizer is not loaded", textPreprocessor.getLoadingFailure());
+        }
+        run.startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        run.heapMegabytes = (usedHeap() - heapBefore) / 1024.0 / 1024.0;
+
+        start = System.nanoTime();
+        run.preprocessed = textPreprocessor.getPreprocessed(contents);
+        run.preprocessingMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        MetricsGenerator metricsGenerator = OfflineMetricsGenerator.create(textPreprocessor, configuration, corpus);
+        start = System.nanoTime();
+        for (int i = 0; i < EVALUATED_QUESTIONS; i++) {
+            List<QuestionGenerateMetricsRequest> others = new ArrayList<>(corpus);
+            QuestionGenerateMetricsRequest question = others.remove(i);
+            run.recommendations.add(metricsGenerator.generateMetrics(question.getContent(), others));
+        }
+        run.recommendationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        textPreprocessor.shutdown();
+        return run;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class Run {
+        long startupMillis;
+        double heapMegabytes;
+        long preprocessingMillis;
+        long recommendationMillis;
+        Map<String, String> preprocessed;
+        List<List<Long>> recommendations = new ArrayList<>();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LightLemmatizerTest {
+
+    private final LightLemmatizer lightLemmatizer = new LightLemmatizer();
+
+    @Test
+    public void lemmatize_whenWordsAreInflected_receiveBaseForms() {
+        String content = "many commits made developers spent reviews";
+
+        assertEquals(
+                asList("many", "commit", "make", "developer", "spend", "review"),
+                lightLemmatizer.lemmatize(content, content.split(" "))
+        );
+    }
+
+    @Test
+    public void lemmatize_whenNounsArePlural_receiveSingular() {
+        String content = "bugs classes libraries branches queries";
+
+        assertEquals(
+                asList("bug", "class", "library", "branch", "query"),
+                lightLemmatizer.lemmatize(content, content.split(" "))
+        );
+    }
+
+    @Test
+    public void lemmatize_whenVerbsArePastForms_receiveBaseForms() {
+        String content = "failed merged deployed fixed committed";
+
+        assertEquals(
+                asList("fail", "merge", "deploy", "fix", "commit"),
+                lightLemmatizer.lemmatize(content, content.split(" "))
+        );
+    }
+
+    @Test
+    public void lemmatize_whenVerbsAreIngForms_receiveBaseForms() {
+        String content = "building running testing writing reviewing";
+
+        assertEquals(
+                asList("build", "run", "test", "write", "review"),
+                lightLemmatizer.lemmatize(content, content.split(" "))
+        );
+    }
+
+    @Test
+    public void lemmatize_whenWordsAreIrregular_receiveBaseForms() {
+        String content = "written taken went were children ran wrote built";
+
+        assertEquals(
+                asList("write", "take", "go", "be", "child", "run", "write", "build"),
+                lightLemmatizer.lemmatize(content, content.split(" "))
+        );
+    }
+
+    @Test
+    public void lemmatize_whenWordsAreBaseForms_receiveThemUnchanged() {
+        String content = "sprint code coverage people";
+
+        assertEquals(
+                asList("sprint", "code", "coverage", "people"),
+                lightLemmatizer.lemmatize(content, content.split(" "))
+        );
+    }
+
+    @Test
+    public void lemmatize_whenContentIsEmpty_receiveNoLemmas() {
+        assertTrue(lightLemmatizer.lemmatize("", new String[0]).isEmpty());
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import lombok.NoArgsConstructor;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+@NoArgsConstructor
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class MetricCatalogTest {
+
+    @Autowired
+    MetricCatalog metricCatalog;
+    @Autowired
+    MetricRepository metricRepository;
+    @Autowired
+    QuestionRepository questionRepository;
+
+    @BeforeEach
+    public void cleanUp() {
+        questionRepository.deleteAll();
+        metricRepository.deleteAll();
+    }
+
+    @Test
+    public void getIds_whenMetricIsRenamed_receiveIdByNewName() {
+        //given
+        val metric = metricRepository.save(createMetric("lines of code"));
+        metricCatalog.getIds(singletonList("lines of code"));
+
+        //when
+        metric.setName("lines of code per day");
+        metricRepository.save(metric);
+
+        //then
+        assertEquals(
+                singletonMap("lines of code per day", metric.getId()),
+                metricCatalog.getIds(asList("lines of code", "lines of code per day"))
+        );
+    }
+
+    @Test
+    public void getIds_whenMetricIsDeletedAndCreatedAgain_receiveIdOfNewMetric() {
+        //given
+        val deleted = metricRepository.save(createMetric("commit count"));
+        metricCatalog.getIds(singletonList("commit count"));
+        metricRepository.deleteAll();
+
+        //when
+        val created = metricRepository.save(createMetric("commit count"));
+
+        //then
+        assertNotEquals(deleted.getId(), created.getId());
+        assertEquals(singletonMap("commit count", created.getId()), metricCatalog.getIds(singletonList("commit count")));
+    }
+
+    @Test
+    public void getMetrics_whenMetricsAreStored_receiveTheirIdsNamesAndDescriptions() {
+        //given
+        val metric = metricRepository.save(createMetric("build time"));
+
+        //when
+        val metrics = metricCatalog.getMetrics(asList(metric.getId(), metric.getId() + 1));
+
+        //then
+        assertEquals(1, metrics.size());
+        assertEquals(metric.getId(), metrics.get(0).getId());
+        assertEquals("build time", metrics.get(0).getName());
+        assertEquals("this is build time metric", metrics.get(0).getDescription());
+    }
+
+    private Metric createMetric(String name) {
+        return Metric.builder()
+                     .name(name)
+                     .description("this is " + name + " metric")
+                     .build();
+    }
+
+}
@@ -1,14 +1,411 @@
 package com.innometrics.gqm_api.metrics_generation;
 
+import com.innometrics.gqm_api.dto.MetricBaseDto;
+import com.innometrics.gqm_api.dto.MetricResponse;
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import lombok.NoArgsConstructor;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@NoArgsConstructor
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
 public class MetricsGeneratorTest {
 
-    private MetricsGenerator metricsGenerator;
+    @Autowired
+    MetricsGenerator metricsGenerator;
+    @Autowired
+    MetricRepository metricRepository;
+    @Autowired
+    MetricCatalog metricCatalog;
+    @Autowired
+    QuestionRepository questionRepository;
+    @Autowired
+    TextPreprocessor textPreprocessor;
+    @Autowired
+    FileGenerationConfiguration fileGenerationConfiguration;
+    @Autowired
+    ModelSnapshotStore modelSnapshotStore;
+    @Autowired
+    Vocabulary vocabulary;
+    @Autowired
+    ClassifierTrainer classifierTrainer;
+    @Autowired
+    GenerationMetrics generationMetrics;
+
+    private final Map<String, Metric> metrics = new HashMap<>();
+
+    @BeforeEach
+    public void cleanUp() {
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        questionRepository.deleteAll();
+        metricRepository.deleteAll();
+        metrics.clear();
+        for (val name : asList("lines of code", "commit count", "test coverage", "build time", "review time")) {
+            metrics.put(name, metricRepository.save(createValidMetric(name)));
+        }
+    }
+
+    @Test
+    public void generateMetrics_whenLessThanThreeMetricsInCorpus_receiveEmptyList() {
+        val corpus = asList(
+                createQuestion("How many lines of code are written per day?", "lines of code"),
+                createQuestion("How many commits are made by the developers?", "commit count")
+        );
+
+        val metricsIds = metricsGenerator.generateMetrics("How many lines of code are reviewed?", corpus);
+
+        assertTrue(metricsIds.isEmpty());
+    }
+
+    @Test
+    public void generateMetrics_whenSimilarQuestionsInCorpus_receiveTheirMetrics() {
+        val metricsIds = metricsGenerator.generateMetrics(
+                "How many commits are made by the developers?",
+                createCorpus()
+        );
+
+        assertTrue(metricsIds.contains(metrics.get("commit count").getId()));
+    }
+
+    @Test
+    public void generateMetrics_whenQuestionsHaveSamePreprocessedContent_receiveMetricsOfBoth() {
+        val corpus = createCorpus();
+        corpus.add(createQuestion("How many commits were made by developers?", "commit count"));
+        corpus.add(createQuestion("How many commits are made by the developers", "lines of code"));
+
+        val metricsIds = metricsGenerator.generateMetrics("How many commits are made by the developers?", corpus);
+
+        assertTrue(metricsIds.contains(metrics.get("commit count").getId()));
+    }
+
+    @Test
+    public void generateMetrics_whenQuestionHasOnlyStopWords_receiveNoEmptyLemma() {
+        val corpus = createCorpus();
+        corpus.add(createQuestion("Is it?", "build time"));
+        assertEquals("", textPreprocessor.getPreprocessed("Is it?"));
+
+        val metricsIds = metricsGenerator.generateMetrics("How many commits are made by the developers?", corpus);
+
+        assertTrue(metricsIds.contains(metrics.get("commit count").getId()));
+        assertNull(vocabulary.findLemmaId(""));
+    }
+
+    @Test
+    public void generateMetrics_whenLemmaIsSameAsMetricName_receiveMetricsOfQuestionsWithIt() {
+        metrics.put("velocity", metricRepository.save(createValidMetric("velocity")));
+        metrics.put("linesofcode", metricRepository.save(createValidMetric("linesofcode")));
+        val corpus = createCorpus();
+        corpus.add(createQuestion("What is the velocity of the team?", "velocity"));
+        corpus.add(createQuestion("How does the velocity change from sprint to sprint?", "velocity", "linesofcode"));
+
+        val metricsIds = metricsGenerator.generateMetrics("What is the velocity of the sprint?", corpus);
+
+        assertTrue(metricsIds.contains(metrics.get("velocity").getId()));
+    }
+
+    @Test
+    public void recommendMetrics_whenNoLimits_receiveAllMetricsRankedByConfidence() {
+        val trainingSetKey = TrainingSetKey.excluding(1L, System.nanoTime());
+
+        val recommendations = metricsGenerator.recommendMetrics(
+                "How many lines of code were written by the developers?",
+                trainingSetKey,
+                this::createCorpus,
+                RecommendationLimits.NONE
+        );
+
+        assertEquals(metrics.size(), recommendations.size());
+        assertEquals(
+                metricsGenerator.generateMetrics(
+                        "How many lines of code were written by the developers?",
+                        trainingSetKey,
+                        this::createCorpus
+                ),
+                recommendations.stream()
+                               .filter(MetricRecommendation::isChosen)
+                               .map(MetricRecommendation::getMetricId)
+                               .collect(Collectors.toList())
+        );
+        for (int i = 1; i < recommendations.size(); i++) {
+            assertTrue(recommendations.get(i - 1).getConfidence() >= recommendations.get(i).getConfidence());
+        }
+    }
+
+    @Test
+    public void recommendMetrics_whenTopKAndMinConfidenceAreGiven_receiveMostConfidentMetricsAboveIt() {
+        val trainingSetKey = TrainingSetKey.excluding(1L, System.nanoTime());
+        val allRecommendations = metricsGenerator.recommendMetrics(
+                "How many lines of code were written by the developers?",
+                trainingSetKey,
+                this::createCorpus,
+                RecommendationLimits.of(null, 0.0)
+        );
+
+        val recommendations = metricsGenerator.recommendMetrics(
+                "How many lines of code were written by the developers?",
+                trainingSetKey,
+                this::createCorpus,
+                RecommendationLimits.of(2, 0.0)
+        );
+
+        assertEquals(metrics.size(), allRecommendations.size());
+        assertEquals(allRecommendations.subList(0, 2), recommendations);
+    }
+
+    @Test
+    public void recommendMetrics_whenOnlyTopKIsGiven_receiveMetricsNotChosenByClassifierAsWell() {
+        val trainingSetKey = TrainingSetKey.excluding(1L, System.nanoTime());
+
+        val recommendations = metricsGenerator.recommendMetrics(
+                "How many lines of code were written by the developers?",
+                trainingSetKey,
+                this::createCorpus,
+                RecommendationLimits.of(metrics.size(), null)
+        );
+
+        assertEquals(metrics.size(), recommendations.size());
+        assertTrue(recommendations.stream().anyMatch(recommendation -> !recommendation.isChosen()));
+    }
+
+    @Test
+    public void generateMetrics_whenTrainingSetIsNeighbourhood_receiveMetricsOfModelTrainedOnIt() {
+        val corpus = createCorpus();
+        for (int i = 0; i < corpus.size(); i++) {
+            corpus.get(i).setId((long) i);
+        }
+        val neighbourIds = new HashSet<>(asList(0L, 3L, 4L, 5L, 8L));
+        val neighbourhood = new ArrayList<QuestionGenerateMetricsRequest>();
+        for (val id : neighbourIds) {
+            neighbourhood.add(corpus.get(id.intValue()));
+        }
+
+        val metricsIds = metricsGenerator.generateMetrics(
+                "How many lines of code were reviewed?",
+                TrainingSetKey.neighbourhood(4L, neighbourIds, System.nanoTime()),
+                () -> corpus
+        );
+
+        neighbourhood.remove(corpus.get(4));
+        assertEquals(
+                new HashSet<>(metricsGenerator.generateMetrics("How many lines of code were reviewed?", neighbourhood)),
+                new HashSet<>(metricsIds)
+        );
+    }
+
+    @Test
+    public void generateMetrics_whenCorpusVersionIsUnchanged_questionsLoadedOnce() {
+        val loads = new AtomicInteger();
+        val trainingSetKey = TrainingSetKey.excluding(1L, System.nanoTime());
+
+        val firstMetricsIds = metricsGenerator.generateMetrics(
+                "How many commits are made by the developers?",
+                trainingSetKey,
+                () -> {
+                    loads.incrementAndGet();
+                    return createCorpus();
+                }
+        );
+        val secondMetricsIds = metricsGenerator.generateMetrics(
+                "How many commits are made by the developers?",
+                trainingSetKey,
+                () -> {
+                    loads.incrementAndGet();
+                    return createCorpus();
+                }
+        );
+
+        assertEquals(1, loads.get());
+        assertEquals(firstMetricsIds, secondMetricsIds);
+    }
+
+    @Test
+    public void generateMetrics_whenSnapshotOfCorpusVersionIsSaved_questionsNotLoadedAfterRestart(
+            @TempDir Path snapshotDirectory
+    ) {
+        //given
+        val loads = new AtomicInteger();
+        val trainingSetKey = TrainingSetKey.fullCorpus(System.nanoTime());
+        fileGenerationConfiguration.setModelSnapshotFile(snapshotDirectory.resolve("model.snapshot").toString());
+        try {
+            val trainedMetricsIds = metricsGenerator.generateMetrics(
+                    "How many commits are made by the developers?",
+                    trainingSetKey,
+                    this::createCorpus
+            );
+            val restartedMetricsGenerator = createMetricsGeneratorWithEmptyCache();
+
+            //when
+            val loadedMetricsIds = restartedMetricsGenerator.generateMetrics(
+                    "How many commits are made by the developers?",
+                    trainingSetKey,
+                    () -> {
+                        loads.incrementAndGet();
+                        return createCorpus();
+                    }
+            );
+
+            //then
+            assertEquals(0, loads.get());
+            assertEquals(trainedMetricsIds, loadedMetricsIds);
+            assertFalse(modelSnapshotStore.load(trainingSetKey.getCorpusVersion() + 1).isPresent());
+        } finally {
+            fileGenerationConfiguration.setModelSnapshotFile(null);
+        }
+    }
+
+    @Test
+    public void generateMetrics_whenSharedModelIsPublished_predictWithoutLoadingQuestions() {
+        //given
+        val loads = new AtomicInteger();
+        val corpusVersion = System.nanoTime();
+        val metricsGeneratorWithSharedModel = createMetricsGeneratorWithEmptyCache();
+        metricsGeneratorWithSharedModel.trainSharedModel(corpusVersion, this::createCorpus);
+
+        //when
+        val metricsIds = metricsGeneratorWithSharedModel.generateMetrics(
+                "How many commits are made by the developers?",
+                TrainingSetKey.fullCorpus(corpusVersion + 1),
+                () -> {
+                    loads.incrementAndGet();
+                    return createCorpus();
+                }
+        );
+
+        //then
+        assertEquals(0, loads.get());
+        assertEquals(
+                metricsGenerator.generateMetrics("How many commits are made by the developers?", createCorpus()),
+                metricsIds
+        );
+    }
+
+    @Test
+    public void generateMetrics_whenCalledConcurrently_receiveSequentialResults(@TempDir Path dumpDirectory)
+            throws Exception {
+        val corpus = createCorpus();
+        val corpusVersion = System.nanoTime();
+        val sequentialMetricsIds = new ArrayList<List<Long>>();
+        for (int i = 0; i < corpus.size(); i++) {
+            sequentialMetricsIds.add(generateForLeftOutQuestion(corpus, i, null));
+        }
+
+        val mulanInputFilesDirectory = fileGenerationConfiguration.getMulanInputFilesDirectory();
+        fileGenerationConfiguration.setMulanInputFilesDirectory(dumpDirectory.toString());
+        fileGenerationConfiguration.setDumpMulanInputFiles(true);
+        val executor = Executors.newFixedThreadPool(8);
+        try {
+            val generations = new ArrayList<Future<List<Long>>>();
+            for (int round = 0; round < 4; round++) {
+                val trainingSetVersion = round % 2 == 0 ? null : corpusVersion;
+                for (int i = 0; i < corpus.size(); i++) {
+                    val index = i;
+                    generations.add(executor.submit(
+                            () -> generateForLeftOutQuestion(corpus, index, trainingSetVersion)
+                    ));
+                }
+            }
+
+            for (int i = 0; i < generations.size(); i++) {
+                assertEquals(sequentialMetricsIds.get(i % corpus.size()), generations.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+            fileGenerationConfiguration.setDumpMulanInputFiles(false);
+            fileGenerationConfiguration.setMulanInputFilesDirectory(mulanInputFilesDirectory);
+        }
+    }
+
+    /**
+     * @param corpusVersion version to cache the trained model with, null to train without the cache
+     */
+    private List<Long> generateForLeftOutQuestion(
+            List<QuestionGenerateMetricsRequest> corpus,
+            int index,
+            Long corpusVersion
+    ) {
+        val trainingQuestions = new ArrayList<>(corpus);
+        val question = trainingQuestions.remove(index);
+        if (corpusVersion == null) {
+            return metricsGenerator.generateMetrics(question.getContent(), trainingQuestions);
+        }
+        return metricsGenerator.generateMetrics(
+                question.getContent(),
+                TrainingSetKey.excluding((long) index, corpusVersion),
+                () -> trainingQuestions
+        );
+    }
+
+    private MetricsGenerator createMetricsGeneratorWithEmptyCache() {
+        return new MetricsGenerator(
+                metricCatalog,
+                fileGenerationConfiguration,
+                new TrainedModelCache(fileGenerationConfiguration, modelSnapshotStore, generationMetrics),
+                textPreprocessor,
+                vocabulary,
+                classifierTrainer,
+                generationMetrics
+        );
+    }
+
+    private List<QuestionGenerateMetricsRequest> createCorpus() {
+        return new ArrayList<>(asList(
+                createQuestion("How many lines of code are written per day?", "lines of code"),
+                createQuestion("What is the coverage of the tests in the project?", "test coverage", "build time"),
+                createQuestion("How long does the build take?", "build time"),
+                createQuestion("How long does a code review take?", "review time", "lines of code"),
+                createQuestion("How many lines of code were reviewed?", "lines of code", "review time"),
+                createQuestion("How often do developers commit code?", "commit count", "lines of code"),
+                createQuestion("Are the tests covering the critical code?", "test coverage"),
+                createQuestion("How slow is the continuous integration build?", "build time", "commit count"),
+                createQuestion("How many reviews are done for each commit?", "review time", "commit count")
+        ));
+    }
+
+    private QuestionGenerateMetricsRequest createQuestion(String content, String... metricsNames) {
+        val metricResponses = new ArrayList<MetricResponse>();
+        for (val name : metricsNames) {
+            metricResponses.add(MetricResponse.buildFrom(metrics.get(name)));
+        }
+        return QuestionGenerateMetricsRequest.builder()
+                                             .content(content)
+                                             .metrics(metricResponses)
+                                             .build();
+    }
 
-//    @Test
-//    @DisplayName("Simple multiplication should work")
-//    public void testMultiply() {
-//        assertEquals("", metricsGenerator.getCleanedText("This is just the ordinary sentence with the huge amount of meaningless words"),
-//                "Regular multiplication should work");
-//    }
+    private Metric createValidMetric(String name) {
+        val metricBaseDto = MetricBaseDto.builder()
+                                         .name(name)
+                                         .description("this is " + name + " metric")
+                                         .build();
+        return Metric.buildFrom(metricBaseDto);
+    }
 
 }
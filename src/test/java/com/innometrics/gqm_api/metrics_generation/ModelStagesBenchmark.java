@@ -0,0 +1,86 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import mulan.classifier.MultiLabelLearner;
+import mulan.classifier.MultiLabelOutput;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static com.innometrics.gqm_api.metrics_generation.MetricsGenerator.FileType.INPUT;
+
+/**
+ * training of the classifier on the synthetic dataset and the prediction for one question with it.
+ * The largest corpora with many metrics train for minutes, narrow the parameters for a quick run:
+ * mvn -P benchmarks test -DskipTests "-Dbenchmarks=ModelStages -p corpusSize=1000 -p metricsCount=100"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ModelStagesBenchmark {
+
+    private static final String INPUT_QUESTION = "How many failed builds are there during the last sprint?";
+
+    @Param({"100", "1000", "10000"})
+    public int corpusSize;
+
+    @Param({"10", "100", "500"})
+    public int metricsCount;
+
+    private SyntheticTrainingSet trainingSet;
+    private ClassifierTrainer classifierTrainer;
+
+    @Setup
+    public void setUp() {
+        trainingSet = new SyntheticTrainingSet(corpusSize, metricsCount);
+        classifierTrainer = new ClassifierTrainer(trainingSet.configuration);
+    }
+
+    @TearDown
+    public void tearDown() {
+        classifierTrainer.shutdown();
+        trainingSet.shutdown();
+    }
+
+    @Benchmark
+    public MultiLabelLearner train() {
+        return classifierTrainer.train(trainingSet.dataset);
+    }
+
+    @Benchmark
+    public MultiLabelOutput predict(Prediction prediction) {
+        return trainingSet.metricsGenerator.makePrediction(
+                prediction.model,
+                trainingSet.metricsGenerator.createInstances(
+                        INPUT,
+                        Collections.singletonMap(prediction.preprocessedInput, Collections.emptySet()),
+                        prediction.model
+                )
+        );
+    }
+
+    /**
+     * the model is trained for the prediction only, so the training is not repeated for the train benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class Prediction {
+
+        private TrainedModel model;
+        private String preprocessedInput;
+
+        @Setup
+        public void setUp(ModelStagesBenchmark benchmark) {
+            model = benchmark.trainingSet.untrainedModel.toBuilder()
+                                                        .classifier(benchmark.classifierTrainer.train(
+                                                                benchmark.trainingSet.dataset
+                                                        ))
+                                                        .build();
+            preprocessedInput = benchmark.trainingSet.textPreprocessor.getPreprocessed(INPUT_QUESTION);
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.dto.MetricResponse;
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.model.Token;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.TokenRepository;
+import com.innometrics.gqm_api.service.TokenService;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * metrics generator which works without the database for the reports run outside of the application,
+ * metrics ids are taken from the corpus, tokens are kept in memory only
+ */
+final class OfflineMetricsGenerator {
+
+    private OfflineMetricsGenerator() {
+    }
+
+    static MetricsGenerator create(
+            TextPreprocessor textPreprocessor,
+            FileGenerationConfiguration configuration,
+            List<QuestionGenerateMetricsRequest> corpus
+    ) {
+        Vocabulary vocabulary = new Vocabulary(new TokenService(inMemoryTokenRepository()));
+        vocabulary.load();
+        GenerationMetrics generationMetrics = new GenerationMetrics(new SimpleMeterRegistry(), vocabulary);
+        return new MetricsGenerator(
+                new MetricCatalog(inMemoryMetricRepository(corpus)),
+                configuration,
+                new TrainedModelCache(
+                        configuration,
+                        new ModelSnapshotStore(configuration, textPreprocessor, vocabulary),
+                        generationMetrics
+                ),
+                textPreprocessor,
+                vocabulary,
+                new ClassifierTrainer(configuration),
+                generationMetrics
+        );
+    }
+
+    private static MetricRepository inMemoryMetricRepository(List<QuestionGenerateMetricsRequest> corpus) {
+        Map<String, Long> ids = corpus.stream()
+                                      .flatMap(question -> question.getMetrics().stream())
+                                      .collect(Collectors.toMap(
+                                              MetricResponse::getName,
+                                              MetricResponse::getId,
+                                              (id, sameId) -> id
+                                      ));
+        return (MetricRepository) Proxy.newProxyInstance(
+                MetricRepository.class.getClassLoader(),
+                new Class<?>[]{MetricRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAll":
+                            return ids.entrySet().stream()
+                                      .map(metric -> Metric.builder().id(metric.getValue()).name(metric.getKey()).build())
+                                      .collect(Collectors.toList());
+                        case "findAllByNameIn":
+                            @SuppressWarnings("unchecked")
+                            List<String> names = (List<String>) args[0];
+                            return names.stream()
+                                        .filter(ids::containsKey)
+                                        .map(name -> Metric.builder().id(ids.get(name)).name(name).build())
+                                        .collect(Collectors.toList());
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+    private static TokenRepository inMemoryTokenRepository() {
+        AtomicLong ids = new AtomicLong();
+        return (TokenRepository) Proxy.newProxyInstance(
+                TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAll":
+                            return Collections.emptyList();
+                        case "save":
+                            Token token = (Token) args[0];
+                            token.setId(ids.incrementAndGet());
+                            return token;
+                        case "saveAll":
+                            @SuppressWarnings("unchecked")
+                            List<Token> tokens = (List<Token>) args[0];
+                            tokens.forEach(created -> created.setId(ids.incrementAndGet()));
+                            return tokens;
+                        case "flush":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import mulan.classifier.MultiLabelLearner;
+import mulan.classifier.MultiLabelOutput;
+import mulan.classifier.meta.RAkEL;
+import mulan.data.LabelNodeImpl;
+import mulan.data.LabelsMetaDataImpl;
+import mulan.data.MultiLabelInstances;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import weka.classifiers.trees.J48;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelRAkELTest {
+
+    private static final int FEATURES = 12;
+    private static final int LABELS = 6;
+    private static final int THREADS = 8;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void makePrediction_whenTrainedInParallel_receiveSameOutputAsRAkEL() throws Exception {
+        //given
+        MultiLabelInstances dataset = createDataset(120, 7);
+        RAkEL sequential = new RAkEL(new RepeatableLabelPowerset(new J48()));
+        sequential.setSizeOfSubset(2);
+        MultiLabelLearner parallel = new ParallelRAkEL(new RepeatableLabelPowerset(new J48()), 2, 0, pool);
+
+        //when
+        sequential.build(dataset);
+        parallel.build(dataset);
+
+        //then
+        for (weka.core.Instance instance : createDataset(40, 11).getDataSet()) {
+            assertArrayEquals(
+                    sequential.makePrediction(instance).getBipartition(),
+                    parallel.makePrediction(instance).getBipartition()
+            );
+            assertArrayEquals(
+                    sequential.makePrediction(instance).getConfidences(),
+                    parallel.makePrediction(instance).getConfidences()
+            );
+        }
+    }
+
+    @Test
+    public void makePrediction_whenPredictingOnSeveralThreads_receiveSameOutputAsOnOne() throws Exception {
+        //given
+        MultiLabelLearner parallel = new ParallelRAkEL(new RepeatableLabelPowerset(new J48()), 2, 0, pool);
+        parallel.build(createDataset(120, 7));
+        Instances inputs = createDataset(40, 11).getDataSet();
+        List<MultiLabelOutput> expected = new ArrayList<>();
+        for (weka.core.Instance instance : inputs) {
+            expected.add(parallel.makePrediction(instance));
+        }
+
+        //when
+        List<Callable<List<MultiLabelOutput>>> predictions = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            predictions.add(() -> {
+                List<MultiLabelOutput> outputs = new ArrayList<>();
+                for (weka.core.Instance instance : inputs) {
+                    outputs.add(parallel.makePrediction(instance));
+                }
+                return outputs;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<MultiLabelOutput>>> outputs = executor.invokeAll(predictions);
+        executor.shutdown();
+
+        //then
+        for (Future<List<MultiLabelOutput>> output : outputs) {
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i).getBipartition(), output.get().get(i).getBipartition());
+                assertArrayEquals(expected.get(i).getConfidences(), output.get().get(i).getConfidences());
+            }
+        }
+    }
+
+    @Test
+    public void build_whenSubsetIsNotSmallerThanLabels_receiveIllegalArgumentException() {
+        MultiLabelLearner parallel = new ParallelRAkEL(new RepeatableLabelPowerset(new J48()), LABELS, 0, pool);
+
+        assertThrows(IllegalArgumentException.class, () -> parallel.build(createDataset(10, 1)));
+    }
+
+    /**
+     * every label is set when two of its features are set, with a bit of noise
+     */
+    private static MultiLabelInstances createDataset(int size, long seed) throws Exception {
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        for (int i = 0; i < FEATURES; i++) {
+            attributes.add(new Attribute("feature" + i, Arrays.asList("0", "1")));
+        }
+        LabelsMetaDataImpl labelsMetaData = new LabelsMetaDataImpl();
+        for (int i = 0; i < LABELS; i++) {
+            attributes.add(new Attribute("label" + i, Arrays.asList("0", "1")));
+            labelsMetaData.addRootNode(new LabelNodeImpl("label" + i));
+        }
+        Instances instances = new Instances("dataset", attributes, size);
+        Random random = new Random(seed);
+        for (int n = 0; n < size; n++) {
+            double[] values = new double[FEATURES + LABELS];
+            for (int i = 0; i < FEATURES; i++) {
+                values[i] = random.nextInt(3) == 0 ? 1 : 0;
+            }
+            for (int i = 0; i < LABELS; i++) {
+                boolean set = values[2 * i] == 1 && values[2 * i + 1] == 1 || random.nextInt(10) == 0;
+                values[FEATURES + i] = set ? 1 : 0;
+            }
+            instances.add(new DenseInstance(1, values));
+        }
+        return new MultiLabelInstances(instances, labelsMetaData);
+    }
+
+}
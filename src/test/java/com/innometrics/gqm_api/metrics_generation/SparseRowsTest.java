@@ -0,0 +1,82 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import mulan.classifier.MultiLabelLearner;
+import mulan.data.MultiLabelInstances;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+import java.util.Collections;
+
+import static com.innometrics.gqm_api.metrics_generation.MetricsGenerator.FileType.INPUT;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SparseRowsTest {
+
+    private SyntheticTrainingSet trainingSet;
+    private ClassifierTrainer classifierTrainer;
+
+    @BeforeEach
+    public void setUp() {
+        trainingSet = new SyntheticTrainingSet(300, 8);
+        classifierTrainer = new ClassifierTrainer(trainingSet.configuration);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        classifierTrainer.shutdown();
+        trainingSet.shutdown();
+    }
+
+    @Test
+    public void makePrediction_whenTrainedOnSparseRows_receiveSameOutputAsDenseRows() throws Exception {
+        //given
+        MultiLabelInstances sparse = trainingSet.dataset;
+        MultiLabelInstances dense = new MultiLabelInstances(toDense(sparse.getDataSet()), sparse.getLabelsMetaData());
+
+        //when
+        MultiLabelLearner sparseModel = classifierTrainer.train(sparse);
+        MultiLabelLearner denseModel = classifierTrainer.train(dense);
+
+        //then
+        assertTrue(sparse.getDataSet().firstInstance() instanceof SparseInstance);
+        int chosenLabels = 0;
+        for (String content : SyntheticQuestions.generate(40, 11)) {
+            Instances input = trainingSet.metricsGenerator.createInstances(
+                    INPUT,
+                    Collections.singletonMap(trainingSet.textPreprocessor.getPreprocessed(content), Collections.emptySet()),
+                    trainingSet.untrainedModel
+            );
+            Instance sparseInput = input.firstInstance();
+            Instance denseInput = toDense(input).firstInstance();
+            assertArrayEquals(
+                    sparseModel.makePrediction(sparseInput).getBipartition(),
+                    denseModel.makePrediction(denseInput).getBipartition()
+            );
+            assertArrayEquals(
+                    sparseModel.makePrediction(sparseInput).getConfidences(),
+                    denseModel.makePrediction(denseInput).getConfidences()
+            );
+            for (boolean chosen : sparseModel.makePrediction(sparseInput).getBipartition()) {
+                chosenLabels += chosen ? 1 : 0;
+            }
+        }
+        assertTrue(chosenLabels > 0);
+    }
+
+    /**
+     * the rows as they were built before, with a value for every attribute
+     */
+    private static Instances toDense(Instances sparse) {
+        Instances dense = new Instances(sparse, sparse.numInstances());
+        for (Instance instance : sparse) {
+            dense.add(new DenseInstance(1, instance.toDoubleArray()));
+        }
+        return dense;
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.dto.MetricResponse;
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * distinct GQM-like questions built from a fixed vocabulary, the same seed gives the same questions
+ */
+final class SyntheticQuestions {
+
+    private static final String[] OPENINGS = {
+            "How many", "What is the number of", "How much time is spent on", "How often do developers make",
+            "What is the average size of", "Which team has the most"
+    };
+
+    private static final String[] SUBJECTS = {
+            "commits", "pull requests", "code reviews", "failed builds", "merged branches", "open issues",
+            "reported bugs", "deployments", "test cases", "lines of code", "meetings", "refactorings",
+            "hotfixes", "releases", "IDE sessions", "broken tests"
+    };
+
+    /**
+     * metric assigned to the questions about the subject with the same index
+     */
+    private static final String[] SUBJECT_METRICS = {
+            "commit count", "pull request count", "review time", "build failure rate", "merge count",
+            "issue count", "bug count", "deployment frequency", "test count", "code size", "meeting time",
+            "refactoring count", "hotfix count", "release frequency", "IDE activity", "test failure rate"
+    };
+
+    private static final String[] CONTEXTS = {
+            "in the repository", "during the last sprint", "per developer", "by the QA team",
+            "in the backend modules", "before the release", "on Mondays", "after the code freeze",
+            "in the mobile application", "for the critical components"
+    };
+
+    /**
+     * metric assigned to the questions in the context with the same index
+     */
+    private static final String[] CONTEXT_METRICS = {
+            "repository activity", "sprint velocity", "developer activity", "QA activity", "backend activity",
+            "release readiness", "weekly activity", "code freeze stability", "mobile activity", "criticality"
+    };
+
+    private SyntheticQuestions() {
+    }
+
+    static List<String> generate(int count, long seed) {
+        return corpus(count, seed).stream()
+                                  .map(QuestionGenerateMetricsRequest::getContent)
+                                  .collect(Collectors.toList());
+    }
+
+    /**
+     * @return questions with the metrics of their subject and context, metrics ids are the indices of their names
+     */
+    static List<QuestionGenerateMetricsRequest> corpus(int count, long seed) {
+        Random random = new Random(seed);
+        Map<String, QuestionGenerateMetricsRequest> questions = new LinkedHashMap<>();
+        while (questions.size() < count) {
+            int subject = random.nextInt(SUBJECTS.length);
+            int context = random.nextInt(CONTEXTS.length);
+            String content = OPENINGS[random.nextInt(OPENINGS.length)] + " " +
+                    SUBJECTS[subject] + " " +
+                    CONTEXTS[context] + " of the project " +
+                    projectName(random.nextInt(count)) + "?";
+            questions.putIfAbsent(content, QuestionGenerateMetricsRequest.builder()
+                    .id((long) questions.size())
+                    .content(content)
+                    .metrics(Arrays.asList(
+                            metric(subject, SUBJECT_METRICS[subject]),
+                            metric(SUBJECTS.length + context, CONTEXT_METRICS[context])
+                    ))
+                    .build());
+        }
+        return new ArrayList<>(questions.values());
+    }
+
+    /**
+     * the same questions, but with the given number of metrics: the first metric of a question depends on
+     * its subject and context, the second one on its project, so small corpora get fewer distinct metrics
+     *
+     * @return questions with two metrics each, metrics ids are the numbers in their names
+     */
+    static List<QuestionGenerateMetricsRequest> corpus(int count, int metricsCount, long seed) {
+        Random random = new Random(seed);
+        Map<String, QuestionGenerateMetricsRequest> questions = new LinkedHashMap<>();
+        while (questions.size() < count) {
+            int subject = random.nextInt(SUBJECTS.length);
+            int context = random.nextInt(CONTEXTS.length);
+            int project = random.nextInt(count);
+            String content = OPENINGS[random.nextInt(OPENINGS.length)] + " " +
+                    SUBJECTS[subject] + " " +
+                    CONTEXTS[context] + " of the project " +
+                    projectName(project) + "?";
+            int topicMetric = (subject * CONTEXTS.length + context) % metricsCount;
+            int projectMetric = (SUBJECTS.length * CONTEXTS.length + project) % metricsCount;
+            questions.putIfAbsent(content, QuestionGenerateMetricsRequest.builder()
+                    .id((long) questions.size())
+                    .content(content)
+                    .metrics(topicMetric == projectMetric
+                            ? Collections.singletonList(metric(topicMetric, "metric " + topicMetric))
+                            : Arrays.asList(
+                                    metric(topicMetric, "metric " + topicMetric),
+                                    metric(projectMetric, "metric " + projectMetric)
+                            ))
+                    .build());
+        }
+        return new ArrayList<>(questions.values());
+    }
+
+    private static MetricResponse metric(int id, String name) {
+        return MetricResponse.builder().id((long) id).name(name).build();
+    }
+
+    /**
+     * @return name made of letters only, so it stays a separate word after the cleaning
+     */
+    private static String projectName(int number) {
+        StringBuilder name = new StringBuilder("pr");
+        do {
+            name.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return name.toString();
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
+import mulan.data.MultiLabelInstances;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * synthetic corpus taken through the stages of the generation up to the dataset, for the benchmarks
+ * of the later stages; the contents are preprocessed with the light lemmatizer, so no NLP models are loaded
+ */
+final class SyntheticTrainingSet {
+
+    final FileGenerationConfiguration configuration;
+    final TextPreprocessor textPreprocessor;
+    final MetricsGenerator metricsGenerator;
+    final List<String> metricsNames;
+    final Map<String, Set<String>> preprocessedQuestionToMetricsMap;
+    final TrainedModel untrainedModel;
+    final MultiLabelInstances dataset;
+
+    SyntheticTrainingSet(int corpusSize, int metricsCount) {
+        configuration = new FileGenerationConfiguration();
+        configuration.setLemmatizer(LemmatizerType.LIGHT);
+        textPreprocessor = new TextPreprocessor(configuration);
+        textPreprocessor.startLoading();
+        if (!textPreprocessor.awaitReady(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Stop words are not loaded", textPreprocessor.getLoadingFailure());
+        }
+
+        List<QuestionGenerateMetricsRequest> corpus = SyntheticQuestions.corpus(corpusSize, metricsCount, 42);
+        metricsGenerator = OfflineMetricsGenerator.create(textPreprocessor, configuration, corpus);
+        metricsNames = metricsGenerator.getMetricsNamesForQuestions(corpus);
+        preprocessedQuestionToMetricsMap = metricsGenerator.getPreprocessedQuestionsContents(
+                metricsGenerator.createQuestionToMetricsMapping(corpus),
+                new PreprocessedContents(textPreprocessor)
+        );
+        untrainedModel = metricsGenerator.createUntrainedModel(preprocessedQuestionToMetricsMap, metricsNames);
+        dataset = metricsGenerator.createMultiLabelInstances(preprocessedQuestionToMetricsMap, untrainedModel);
+    }
+
+    void shutdown() {
+        textPreprocessor.shutdown();
+    }
+
+}
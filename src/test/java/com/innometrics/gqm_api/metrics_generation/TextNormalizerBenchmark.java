@@ -0,0 +1,62 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * compares the single pass normalizer with the split and regex cleaning it replaced
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final String[] CONTENTS = {
+            "How many commits were made to the repository during the last sprint?",
+            "What is the average time (in hours) spent on code review of the pull requests?",
+            "Are the developers' IDE sessions longer on Mondays than on Fridays?!",
+            "Which modules have the highest number of bugs, reported by the QA team, per 1000 lines of code?"
+    };
+
+    private Set<String> stopWords;
+    private TextNormalizer textNormalizer;
+
+    @Setup
+    public void setUp() {
+        List<String> loadedStopWords = TextPreprocessor.loadStopWords();
+        stopWords = new HashSet<>(loadedStopWords);
+        textNormalizer = new TextNormalizer(loadedStopWords);
+    }
+
+    @Benchmark
+    public String[] splitAndRegex() {
+        String[] cleaned = new String[CONTENTS.length];
+        for (int i = 0; i < CONTENTS.length; i++) {
+            cleaned[i] = Arrays.stream(CONTENTS[i].toLowerCase().split(" "))
+                               .map(el -> el.replaceAll("[^a-z]", ""))
+                               .filter(el -> !stopWords.contains(el))
+                               .collect(joining(" "));
+        }
+        return cleaned;
+    }
+
+    @Benchmark
+    public String[] singlePass() {
+        String[] cleaned = new String[CONTENTS.length];
+        for (int i = 0; i < CONTENTS.length; i++) {
+            cleaned[i] = textNormalizer.normalize(CONTENTS[i]);
+        }
+        return cleaned;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextNormalizerTest {
+
+    private final TextNormalizer textNormalizer = new TextNormalizer(TextPreprocessor.loadStopWords());
+
+    @Test
+    public void normalize_whenContentHasPunctuationAndCapitals_receiveLowercaseLetters() {
+        assertEquals(
+                "many commits made repository",
+                textNormalizer.normalize("How many Commits were made to the repository?")
+        );
+    }
+
+    @Test
+    public void normalize_whenLettersAreSeparatedBySymbols_receiveOneWord() {
+        assertEquals("developers ide cicd", textNormalizer.normalize("developers' IDE CI/CD 2021"));
+    }
+
+    @Test
+    public void normalize_whenContentIsBlankOrStopWords_receiveEmpty() {
+        assertEquals("", textNormalizer.normalize("  "));
+        assertEquals("", textNormalizer.normalize("What is the"));
+    }
+
+    @Test
+    public void isStopWord_whenWordIsInTheList_receiveTrue() {
+        TextNormalizer normalizer = new TextNormalizer(asList("a", "the", "what"));
+
+        assertTrue(normalizer.isStopWord("the"));
+        assertTrue(normalizer.isStopWord("a"));
+        assertFalse(normalizer.isStopWord("then"));
+        assertFalse(normalizer.isStopWord("tha"));
+    }
+
+}
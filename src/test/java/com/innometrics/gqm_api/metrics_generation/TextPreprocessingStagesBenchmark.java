@@ -0,0 +1,70 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration.LemmatizerType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * the first two stages of the generation over the whole synthetic corpus on one thread: cleaning of the contents
+ * and lemmatization of the cleaned ones, without the lemma memo, so every content goes through the lemmatizer.
+ * The lemmatizer is a state of its own, so the cleaning is not measured once per lemmatizer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TextPreprocessingStagesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int corpusSize;
+
+    private TextNormalizer textNormalizer;
+    private List<String> contents;
+    private List<String> cleanedContents;
+
+    @Setup
+    public void setUp() {
+        textNormalizer = new TextNormalizer(TextPreprocessor.loadStopWords());
+        contents = SyntheticQuestions.generate(corpusSize, 42);
+        cleanedContents = contents.stream()
+                                  .map(textNormalizer::normalize)
+                                  .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void clean(Blackhole blackhole) {
+        for (String content : contents) {
+            blackhole.consume(textNormalizer.normalize(content));
+        }
+    }
+
+    @Benchmark
+    public void lemmatize(LemmatizerState state, Blackhole blackhole) {
+        for (String content : cleanedContents) {
+            String[] words = content.isEmpty() ? new String[0] : content.split(" ");
+            blackhole.consume(state.lemmatizer.lemmatize(content, words));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LemmatizerState {
+
+        @Param({"LIGHT", "CORENLP"})
+        public LemmatizerType lemmatizerType;
+
+        private Lemmatizer lemmatizer;
+
+        @Setup
+        public void setUp() {
+            lemmatizer = lemmatizerType == LemmatizerType.LIGHT ? new LightLemmatizer() : new CoreNlpLemmatizer();
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class TextPreprocessorTest {
+
+    @Autowired
+    TextPreprocessor textPreprocessor;
+
+    @BeforeEach
+    public void awaitNlpModels() {
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void getPreprocessed_whenCorpusIsPreprocessedInParallel_receiveSequentialResults() {
+        //given
+        List<String> contents = SyntheticQuestions.generate(200, 42);
+
+        //when
+        Map<String, String> preprocessed = textPreprocessor.getPreprocessed(contents);
+
+        //then
+        assertEquals(contents.size(), preprocessed.size());
+        for (String content : contents) {
+            assertEquals(textPreprocessor.getPreprocessed(content), preprocessed.get(content));
+        }
+    }
+
+    @Test
+    public void getPreprocessed_whenQuestionWasPreprocessedBefore_receiveSameLemmasFromMemo() {
+        //given
+        String question = "How many commits were merged by the developers during the last sprint?";
+        String lemmatized = textPreprocessor.getPreprocessed(question);
+        long hits = textPreprocessor.getLemmaMemoHits();
+
+        //when
+        String memorized = textPreprocessor.getPreprocessed(question);
+
+        //then
+        assertEquals(lemmatized, memorized);
+        assertTrue(memorized.contains("commit") && !memorized.contains("commits"));
+        assertEquals(hits + 1, textPreprocessor.getLemmaMemoHits());
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.innometrics.gqm_api.metrics_generation;
+
+import com.innometrics.gqm_api.settings.FileGenerationConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrainedModelCacheTest {
+
+    private static final int LOOKUPS = 4;
+
+    @Test
+    @SneakyThrows
+    public void get_whenSameTrainingSetIsMissedConcurrently_receiveModelTrainedOnce() {
+        //given
+        val trainedModelCache = createTrainedModelCache();
+        val trainings = new AtomicInteger();
+        val barrier = new CyclicBarrier(LOOKUPS);
+        val executor = Executors.newFixedThreadPool(LOOKUPS);
+
+        //when
+        val lookups = new ArrayList<Future<TrainedModelCache.ModelLookup>>();
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups.add(executor.submit(() -> {
+                barrier.await();
+                return trainedModelCache.get(TrainingSetKey.fullCorpus(1), () -> train(trainings));
+            }));
+        }
+
+        //then
+        val models = new ArrayList<TrainedModel>();
+        int trained = 0;
+        for (val lookup : lookups) {
+            models.add(lookup.get().getModel().orElseThrow(IllegalStateException::new));
+            trained += lookup.get().isTrained() ? 1 : 0;
+        }
+        shutdown(executor);
+        assertEquals(1, trainings.get());
+        assertEquals(1, trained);
+        models.forEach(model -> assertSame(models.get(0), model));
+    }
+
+    @Test
+    public void get_whenTrainingFailed_receiveModelTrainedByNextLookup() {
+        //given
+        val trainedModelCache = createTrainedModelCache();
+        val trainings = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> trainedModelCache.get(TrainingSetKey.fullCorpus(1), () -> {
+            throw new IllegalStateException("training failed");
+        }));
+
+        //when
+        val lookup = trainedModelCache.get(TrainingSetKey.fullCorpus(1), () -> train(trainings));
+
+        //then
+        assertTrue(lookup.isTrained());
+        assertTrue(lookup.getModel().isPresent());
+        assertEquals(1, trainings.get());
+    }
+
+    @Test
+    public void publish_whenOtherTrainingSetWasTrainedAfter_receiveLabelsOfPublishedModel() {
+        //given
+        val meterRegistry = new SimpleMeterRegistry();
+        val trainedModelCache = new TrainedModelCache(
+                new FileGenerationConfiguration(),
+                new ModelSnapshotStore(new FileGenerationConfiguration(), null, null),
+                new GenerationMetrics(meterRegistry, new Vocabulary(null))
+        );
+
+        //when
+        trainedModelCache.publish(1, () -> Optional.of(createModel("lines of code", "build time", "test coverage")));
+        trainedModelCache.get(TrainingSetKey.excluding(1L, 1), () -> Optional.of(createModel("lines of code")));
+
+        //then
+        assertEquals(3, meterRegistry.get("gqm.generation.labels").gauge().value());
+        assertFalse(Double.isNaN(meterRegistry.get("gqm.generation.model.age").timeGauge().value(TimeUnit.SECONDS)));
+    }
+
+    private static TrainedModelCache createTrainedModelCache() {
+        return new TrainedModelCache(
+                new FileGenerationConfiguration(),
+                new ModelSnapshotStore(new FileGenerationConfiguration(), null, null),
+                new GenerationMetrics(new SimpleMeterRegistry(), new Vocabulary(null))
+        );
+    }
+
+    private static TrainedModel createModel(String... metricsNames) {
+        return TrainedModel.builder()
+                           .metricsNames(Arrays.asList(metricsNames))
+                           .trainedAt(System.currentTimeMillis())
+                           .build();
+    }
+
+    @SneakyThrows
+    private static Optional<TrainedModel> train(AtomicInteger trainings) {
+        trainings.incrementAndGet();
+        Thread.sleep(200);
+        return Optional.of(TrainedModel.builder().build());
+    }
+
+    @SneakyThrows
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+}
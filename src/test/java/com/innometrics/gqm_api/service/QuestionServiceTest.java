@@ -0,0 +1,214 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.dto.GoalBaseDto;
+import com.innometrics.gqm_api.dto.MetricBaseDto;
+import com.innometrics.gqm_api.dto.MetricRecommendationResponse;
+import com.innometrics.gqm_api.dto.MetricResponse;
+import com.innometrics.gqm_api.dto.QuestionGenerateMetricsRequest;
+import com.innometrics.gqm_api.metrics_generation.RecommendationLimits;
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
+import com.innometrics.gqm_api.model.Goal;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.model.Question;
+import com.innometrics.gqm_api.repositories.GoalRepository;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NoArgsConstructor;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.*;
+
+@NoArgsConstructor
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class QuestionServiceTest {
+
+    @Autowired
+    QuestionService questionService;
+    @Autowired
+    GoalRepository goalRepository;
+    @Autowired
+    MetricRepository metricRepository;
+    @Autowired
+    QuestionRepository questionRepository;
+    @Autowired
+    TextPreprocessor textPreprocessor;
+    @Autowired
+    CorpusVersionService corpusVersionService;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void cleanUp() {
+        questionRepository.deleteAll();
+        goalRepository.deleteAll();
+        metricRepository.deleteAll();
+    }
+
+    @Test
+    public void getAllQuestionsForGeneration_whenQuestionsHaveMetrics_receiveEveryQuestionOnceWithItsMetrics() {
+        //given
+        val goal = goalRepository.save(Goal.buildFrom(
+                GoalBaseDto.builder().content("goal content").userEmail("test1@mail.ru").build()
+        ));
+        val linesOfCode = metricRepository.save(createValidMetric("lines of code"));
+        val commitCount = metricRepository.save(createValidMetric("commit count"));
+        val withMetrics = questionRepository.save(createQuestion(goal, "How many lines are committed?",
+                linesOfCode, commitCount));
+        val withoutMetrics = questionRepository.save(createQuestion(goal, "How long is the build?"));
+
+        //when
+        val questions = questionService.getAllQuestionsForGeneration();
+
+        //then
+        assertEquals(2, questions.size());
+        Map<Long, QuestionGenerateMetricsRequest> questionsById = questions.stream()
+                .collect(Collectors.toMap(QuestionGenerateMetricsRequest::getId, Function.identity()));
+        assertEquals(withMetrics.getContent(), questionsById.get(withMetrics.getId()).getContent());
+        assertEquals(
+                new HashSet<>(asList("lines of code", "commit count")),
+                getMetricsNames(questionsById.get(withMetrics.getId()))
+        );
+        assertEquals(emptySet(), getMetricsNames(questionsById.get(withoutMetrics.getId())));
+    }
+
+    @Test
+    public void generateMetrics_whenSimilarQuestionsHaveMetrics_receiveChosenMetricsAssigned() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        val goal = goalRepository.save(Goal.buildFrom(
+                GoalBaseDto.builder().content("goal content").userEmail("test1@mail.ru").build()
+        ));
+        val linesOfCode = metricRepository.save(createValidMetric("lines of code"));
+        val commitCount = metricRepository.save(createValidMetric("commit count"));
+        val buildTime = metricRepository.save(createValidMetric("build time"));
+        val reviewTime = metricRepository.save(createValidMetric("review time"));
+        questionRepository.save(createQuestion(goal, "How many lines of code are written per day?", linesOfCode));
+        questionRepository.save(createQuestion(goal, "How long does the build take?", buildTime));
+        questionRepository.save(createQuestion(goal, "How long does a code review take?", reviewTime, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How often do developers commit code?", commitCount, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How slow is the build?", buildTime, commitCount));
+        questionRepository.save(createQuestion(goal, "How many reviews are done for each commit?", reviewTime, commitCount));
+        val question = questionRepository.save(createQuestion(goal, "How many commits are made by the developers?",
+                buildTime));
+
+        //when
+        val response = questionService.generateMetrics(question.getId(), RecommendationLimits.NONE);
+
+        //then
+        assertTrue(response.getMetricIds().contains(commitCount.getId()));
+        assertEquals(4, response.getRecommendations().size());
+        assertEquals(
+                new HashSet<>(response.getMetricIds()),
+                response.getRecommendations().stream()
+                        .filter(MetricRecommendationResponse::isChosen)
+                        .map(MetricRecommendationResponse::getMetricId)
+                        .collect(Collectors.toSet())
+        );
+    }
+
+    @Test
+    public void generateMetrics_whenGeneratedTwice_receiveModelTrainedOnce() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        val goal = goalRepository.save(Goal.buildFrom(
+                GoalBaseDto.builder().content("goal content").userEmail("test1@mail.ru").build()
+        ));
+        val linesOfCode = metricRepository.save(createValidMetric("lines of code"));
+        val commitCount = metricRepository.save(createValidMetric("commit count"));
+        val buildTime = metricRepository.save(createValidMetric("build time"));
+        val reviewTime = metricRepository.save(createValidMetric("review time"));
+        questionRepository.save(createQuestion(goal, "How many lines of code are written per day?", linesOfCode));
+        questionRepository.save(createQuestion(goal, "How long does the build take?", buildTime));
+        questionRepository.save(createQuestion(goal, "How long does a code review take?", reviewTime, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How often do developers commit code?", commitCount, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How slow is the build?", buildTime, commitCount));
+        questionRepository.save(createQuestion(goal, "How many reviews are done for each commit?", reviewTime, commitCount));
+        val question = questionRepository.save(createQuestion(goal, "How many commits are made by the developers?",
+                buildTime));
+        val version = corpusVersionService.getCurrent();
+        val missesBefore = getModelCacheCount("miss");
+
+        //when
+        questionService.generateMetrics(question.getId());
+        questionService.generateMetrics(question.getId());
+
+        //then
+        assertEquals(version, corpusVersionService.getCurrent());
+        assertEquals(1, getModelCacheCount("miss") - missesBefore);
+    }
+
+    @Test
+    public void generateMetrics_whenGenerationRemovesOnlyUseOfMetric_receiveCorpusVersionIncremented() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        val goal = goalRepository.save(Goal.buildFrom(
+                GoalBaseDto.builder().content("goal content").userEmail("test1@mail.ru").build()
+        ));
+        val linesOfCode = metricRepository.save(createValidMetric("lines of code"));
+        val commitCount = metricRepository.save(createValidMetric("commit count"));
+        val buildTime = metricRepository.save(createValidMetric("build time"));
+        val reviewTime = metricRepository.save(createValidMetric("review time"));
+        val deploymentFrequency = metricRepository.save(createValidMetric("deployment frequency"));
+        questionRepository.save(createQuestion(goal, "How many lines of code are written per day?", linesOfCode));
+        questionRepository.save(createQuestion(goal, "How long does the build take?", buildTime));
+        questionRepository.save(createQuestion(goal, "How long does a code review take?", reviewTime, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How often do developers commit code?", commitCount, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How slow is the build?", buildTime, commitCount));
+        questionRepository.save(createQuestion(goal, "How many reviews are done for each commit?", reviewTime, commitCount));
+        val question = questionRepository.save(createQuestion(goal, "How many commits are made by the developers?",
+                deploymentFrequency));
+        val version = corpusVersionService.getCurrent();
+
+        //when
+        val response = questionService.generateMetrics(question.getId());
+
+        //then
+        assertFalse(response.getMetricIds().contains(deploymentFrequency.getId()));
+        assertEquals(version + 1, corpusVersionService.getCurrent());
+    }
+
+    private Set<String> getMetricsNames(QuestionGenerateMetricsRequest question) {
+        return question.getMetrics().stream()
+                .map(MetricResponse::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private double getModelCacheCount(String result) {
+        return meterRegistry.get("gqm.generation.model.cache").tag("result", result).counter().count();
+    }
+
+    private Question createQuestion(Goal goal, String content, Metric... metrics) {
+        return Question.builder()
+                       .content(content)
+                       .goal(goal)
+                       .metrics(new HashSet<>(asList(metrics)))
+                       .build();
+    }
+
+    private Metric createValidMetric(String name) {
+        return Metric.buildFrom(MetricBaseDto.builder()
+                                             .name(name)
+                                             .description("this is " + name + " metric")
+                                             .build());
+    }
+
+}
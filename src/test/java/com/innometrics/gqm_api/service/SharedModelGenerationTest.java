@@ -0,0 +1,113 @@
+package com.innometrics.gqm_api.service;
+
+import com.innometrics.gqm_api.dto.GoalBaseDto;
+import com.innometrics.gqm_api.dto.MetricBaseDto;
+import com.innometrics.gqm_api.metrics_generation.RecommendationLimits;
+import com.innometrics.gqm_api.metrics_generation.TextPreprocessor;
+import com.innometrics.gqm_api.metrics_generation.TrainedModelCache;
+import com.innometrics.gqm_api.metrics_generation.TrainingSetKey;
+import com.innometrics.gqm_api.model.Goal;
+import com.innometrics.gqm_api.model.Metric;
+import com.innometrics.gqm_api.model.Question;
+import com.innometrics.gqm_api.repositories.GoalRepository;
+import com.innometrics.gqm_api.repositories.MetricRepository;
+import com.innometrics.gqm_api.repositories.QuestionRepository;
+import lombok.NoArgsConstructor;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@NoArgsConstructor
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "metrics-generation.sharedModel=true")
+public class SharedModelGenerationTest {
+
+    @Autowired
+    QuestionService questionService;
+    @Autowired
+    CorpusVersionService corpusVersionService;
+    @Autowired
+    TrainedModelCache trainedModelCache;
+    @Autowired
+    GoalRepository goalRepository;
+    @Autowired
+    MetricRepository metricRepository;
+    @Autowired
+    QuestionRepository questionRepository;
+    @Autowired
+    TextPreprocessor textPreprocessor;
+
+    @BeforeEach
+    public void cleanUp() {
+        questionRepository.deleteAll();
+        goalRepository.deleteAll();
+        metricRepository.deleteAll();
+    }
+
+    @Test
+    public void generateMetrics_whenGenerationAssignedKnownMetrics_receiveSameSharedModel() {
+        //given
+        assertTrue(textPreprocessor.awaitReady(2, TimeUnit.MINUTES));
+        val goal = goalRepository.save(Goal.buildFrom(
+                GoalBaseDto.builder().content("goal content").userEmail("test1@mail.ru").build()
+        ));
+        val linesOfCode = metricRepository.save(createValidMetric("lines of code"));
+        val commitCount = metricRepository.save(createValidMetric("commit count"));
+        val buildTime = metricRepository.save(createValidMetric("build time"));
+        val reviewTime = metricRepository.save(createValidMetric("review time"));
+        questionRepository.save(createQuestion(goal, "How many lines of code are written per day?", linesOfCode));
+        questionRepository.save(createQuestion(goal, "How long does the build take?", buildTime));
+        questionRepository.save(createQuestion(goal, "How long does a code review take?", reviewTime, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How often do developers commit code?", commitCount, linesOfCode));
+        questionRepository.save(createQuestion(goal, "How slow is the build?", buildTime, commitCount));
+        questionRepository.save(createQuestion(goal, "How many reviews are done for each commit?", reviewTime, commitCount));
+        val first = questionRepository.save(createQuestion(goal, "How often do developers commit code to the project?"));
+        val second = questionRepository.save(createQuestion(goal, "How many commits are reviewed?"));
+
+        val version = corpusVersionService.getCurrent();
+
+        //when
+        val firstResponse = questionService.generateMetrics(first.getId(), RecommendationLimits.NONE);
+        val firstModel = trainedModelCache.get(TrainingSetKey.fullCorpus(version), () -> {
+            throw new AssertionError("the first generation did not train the shared model");
+        }).getModel();
+        questionService.generateMetrics(second.getId(), RecommendationLimits.NONE);
+
+        //then
+        assertFalse(firstResponse.getMetricIds().isEmpty());
+        assertEquals(version, corpusVersionService.getCurrent());
+        val secondModel = trainedModelCache.get(TrainingSetKey.fullCorpus(version), () -> {
+            throw new AssertionError("the second generation trained the shared model again");
+        }).getModel();
+        assertTrue(secondModel.isPresent());
+        assertSame(firstModel.get(), secondModel.get());
+    }
+
+    private Question createQuestion(Goal goal, String content, Metric... metrics) {
+        return Question.builder()
+                       .content(content)
+                       .goal(goal)
+                       .metrics(new HashSet<>(asList(metrics)))
+                       .build();
+    }
+
+    private Metric createValidMetric(String name) {
+        return Metric.buildFrom(MetricBaseDto.builder()
+                                             .name(name)
+                                             .description("this is " + name + " metric")
+                                             .build());
+    }
+
+}